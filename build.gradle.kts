@@ -3,6 +3,7 @@ plugins {
     id("org.springframework.boot") version "3.5.6"
     id("io.spring.dependency-management") version "1.1.7"
     id("com.google.protobuf") version "0.9.4"
+    id("me.champeau.jmh") version "0.7.3"
     jacoco
 }
 
@@ -45,6 +46,9 @@ dependencies {
     runtimeOnly("io.jsonwebtoken:jjwt-impl:0.12.6")
     runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.12.6")
 
+    "jmhRuntimeOnly"("io.jsonwebtoken:jjwt-impl:0.12.6")
+    "jmhRuntimeOnly"("io.jsonwebtoken:jjwt-jackson:0.12.6")
+
     // OpenAPI + Swagger UI
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.6.0")
 
@@ -54,6 +58,8 @@ dependencies {
     implementation("io.lettuce:lettuce-core")
     // ОБЯЗАТЕЛЬНО для Lettuce + Pool
     implementation("org.apache.commons:commons-pool2:2.12.0")
+    // Локальный L1-кэш перед Redis (версия из Spring Boot BOM)
+    implementation("com.github.ben-manes.caffeine:caffeine")
 
     // Для кэширования (включает @Cacheable)
     implementation("org.springframework.boot:spring-boot-starter-cache")
@@ -99,6 +105,20 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Бенчмарки (хэширование паролей, подпись JWT, потоки, кодирование событий и кэша): ./gradlew jmh
+// Число потоков задаётся в самих бенчмарках (@Threads), по умолчанию — один
+jmh {
+    jmhVersion = "1.37"
+    includes = listOf(
+        "PasswordHashingBenchmark", "JwtSigningBenchmark", "RequestThreadingBenchmark", "EventEncodingBenchmark",
+        "CacheValueSerializationBenchmark"
+    )
+    fork = 1
+    warmupIterations = 2
+    iterations = 3
+    resultFormat = "JSON"
+}
+
 jacoco {
     toolVersion = "0.8.14"
 }
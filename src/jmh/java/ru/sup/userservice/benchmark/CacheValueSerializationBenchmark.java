@@ -0,0 +1,65 @@
+package ru.sup.userservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import ru.sup.userservice.config.BinaryCacheValueSerializer;
+import ru.sup.userservice.config.CacheValueFormat;
+import ru.sup.userservice.dto.UserDto;
+import ru.sup.userservice.dto.response.SearchUsersResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Значение кэша {@code user-search} (страница из {@code pageSize} пользователей):
+ * размер и время encode/decode для JSON (GenericJackson2JsonRedisSerializer) и бинарного формата.
+ * Размер значения выводится в setUp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheValueSerializationBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    public CacheValueFormat format;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private RedisSerializer<Object> serializer;
+    private SearchUsersResponse value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        serializer = format == CacheValueFormat.BINARY ? new BinaryCacheValueSerializer(json) : json;
+
+        List<UserDto> users = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            users.add(new UserDto(100_000L + i, "user_" + i, "https://cdn.example.com/avatars/" + i + ".png"));
+        }
+        value = new SearchUsersResponse(users, 0, 1_000, 50);
+        encoded = serializer.serialize(value);
+        System.out.printf("%n%s value: %d bytes%n", format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.sup.userservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.sup.userservice.data.FriendRequestAction;
+import ru.sup.userservice.dto.event.FriendRequestEvent;
+import ru.sup.userservice.kafka.EventEncoding;
+import ru.sup.userservice.kafka.EventSerializer;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация события дружбы: прежний путь (JSON через String) против
+ * {@link EventSerializer} в JSON-байты и protobuf. Размер payload выводится в setUp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventEncodingBenchmark {
+
+    @Param({"JSON", "PROTOBUF"})
+    public EventEncoding encoding;
+
+    private ObjectMapper objectMapper;
+    private EventSerializer serializer;
+    private FriendRequestEvent event;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        serializer = new EventSerializer(objectMapper, encoding);
+        event = new FriendRequestEvent(123456L, 654321L, FriendRequestAction.REQUEST_SENT, LocalDateTime.now());
+        System.out.printf("%n%s payload: %d bytes (JSON string: %d bytes)%n", encoding,
+                serializer.serialize(event).length, objectMapper.writeValueAsString(event).length());
+    }
+
+    /** Прежний путь продюсеров: writeValueAsString + StringSerializer */
+    @Benchmark
+    public byte[] jsonViaString() throws Exception {
+        return objectMapper.writeValueAsString(event).getBytes();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(event);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.sup.userservice.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость подписи и проверки access-токена для HS256, ES256 и EdDSA (Ed25519).
+ * Один поток: ops/s — токенов в секунду на ядро.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtSigningBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private Key signKey;
+    private SecureDigestAlgorithm<Key, Key> signature;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        Key verifyKey;
+        switch (algorithm) {
+            case "HS256" -> {
+                byte[] secret = new byte[32];
+                new SecureRandom().nextBytes(secret);
+                signKey = Keys.hmacShaKeyFor(secret);
+                verifyKey = signKey;
+                signature = (SecureDigestAlgorithm<Key, Key>) (SecureDigestAlgorithm<?, ?>) Jwts.SIG.HS256;
+            }
+            case "ES256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                KeyPair keyPair = generator.generateKeyPair();
+                signKey = keyPair.getPrivate();
+                verifyKey = keyPair.getPublic();
+                signature = (SecureDigestAlgorithm<Key, Key>) (SecureDigestAlgorithm<?, ?>) Jwts.SIG.ES256;
+            }
+            case "EdDSA" -> {
+                KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+                signKey = keyPair.getPrivate();
+                verifyKey = keyPair.getPublic();
+                signature = (SecureDigestAlgorithm<Key, Key>) (SecureDigestAlgorithm<?, ?>) Jwts.SIG.EdDSA;
+            }
+            default -> throw new IllegalArgumentException(algorithm);
+        }
+        parser = Jwts.parser().keyLocator(header -> verifyKey).build();
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        return Jwts.builder()
+                .subject("alice")
+                .claim("userId", 42L)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 900_000))
+                .signWith(signKey, signature)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
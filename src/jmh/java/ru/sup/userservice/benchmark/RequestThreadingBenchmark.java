@@ -0,0 +1,82 @@
+package ru.sup.userservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочное сравнение платформенных и виртуальных потоков обработки запросов.
+ * <p>
+ * Синтетическая модель: эндпоинты сервиса не вызываются, БД и внешний вызов заменены
+ * {@code Thread.sleep}. Результат показывает разницу моделей потоков при заданных задержках,
+ * а не пропускную способность самого сервиса — её измеряют нагрузочным тестом по HTTP.
+ * <p>
+ * Модель запроса: короткая работа с БД через пул из 10 соединений (семафор, как
+ * {@code ConnectionLimitingDataSource}) и блокирующее ожидание внешнего вызова
+ * (ack Kafka, notification-service по gRPC). Платформенный вариант — пул из 200 потоков,
+ * как Tomcat по умолчанию. 400 потоков JMH — одновременные клиенты.
+ * <p>
+ * Throughput — запросов в мс, SampleTime — распределение задержки (p0.99 в отчёте).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+public class RequestThreadingBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int DB_POOL_SIZE = 10;
+
+    @Param({"platform", "virtual"})
+    public String threading;
+
+    @Param({"20"})
+    public int remoteCallMs;
+
+    @Param({"1"})
+    public int dbWorkMs;
+
+    private ExecutorService executor;
+    private Semaphore connections;
+
+    @Setup
+    public void setUp() {
+        executor = "virtual".equals(threading)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        connections = new Semaphore(DB_POOL_SIZE, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Boolean request() throws Exception {
+        return executor.submit(this::handle).get();
+    }
+
+    private Boolean handle() throws InterruptedException {
+        connections.acquire();
+        try {
+            Thread.sleep(dbWorkMs);
+        } finally {
+            connections.release();
+        }
+        Thread.sleep(remoteCallMs);
+        return Boolean.TRUE;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Отзыв уже выданных access-токенов: в Redis хранится «токены пользователя, выпущенные раньше T, недействительны».
+ * Каждый узел держит локальный bloom-фильтр userId и раз в {@code syncInterval} догружает новые записи;
+ * раз в {@code rebuildInterval} фильтр пересобирается, а записи старше срока жизни access-токена удаляются.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt.denylist")
+public class AccessTokenDenylistProperties {
+    private boolean enabled = true;
+    private Duration syncInterval = Duration.ofSeconds(5);
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+    private long expectedRevocations = 100_000;
+    private double falsePositiveRate = 0.01;
+}
@@ -0,0 +1,192 @@
+package ru.sup.userservice.config;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import ru.sup.userservice.dto.UserDto;
+import ru.sup.userservice.dto.response.SearchUsersResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Компактная сериализация значений кэша: {@code [версия][id типа][тело]}.
+ * <p>
+ * Типы регистрируются с постоянным id и кодеком ({@link #register}); id не переиспользуются.
+ * Незарегистрированные типы пишутся как JSON с id {@code 0}. Значения без байта версии
+ * (записанные GenericJackson2JsonRedisSerializer до перехода) читаются как JSON.
+ */
+public class BinaryCacheValueSerializer implements RedisSerializer<Object> {
+
+    static final byte VERSION = 1;
+    private static final byte JSON_TYPE = 0;
+
+    private final GenericJackson2JsonRedisSerializer json;
+    private final Registration<?>[] byId = new Registration<?>[128];
+    private final List<Registration<?>> registrations = new ArrayList<>();
+
+    public BinaryCacheValueSerializer(GenericJackson2JsonRedisSerializer json) {
+        this.json = json;
+        register(1, Long.class, DataOutputStream::writeLong, DataInputStream::readLong);
+        register(2, Boolean.class, DataOutputStream::writeBoolean, DataInputStream::readBoolean);
+        register(3, UserDto.class, BinaryCacheValueSerializer::writeUser, BinaryCacheValueSerializer::readUser);
+        register(5, SearchUsersResponse.class, BinaryCacheValueSerializer::writeSearch, BinaryCacheValueSerializer::readSearch);
+        // Списки друзей: List<UserDto> (пустые списки не кэшируются, но и они кодируются)
+        register(4, List.class, BinaryCacheValueSerializer::writeUsers, BinaryCacheValueSerializer::readUsers,
+                list -> list.stream().allMatch(UserDto.class::isInstance));
+    }
+
+    @FunctionalInterface
+    public interface Writer<T> {
+        void write(DataOutputStream out, T value) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private record Registration<T>(byte id, Class<T> type, Writer<T> writer, Reader<T> reader, Predicate<T> accepts) {
+    }
+
+    public final <T> void register(int id, Class<T> type, Writer<T> writer, Reader<T> reader) {
+        register(id, type, writer, reader, value -> true);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> void register(int id, Class<T> type, Writer<? super T> writer, Reader<? extends T> reader,
+                              Predicate<T> accepts) {
+        if (id <= JSON_TYPE || id >= byId.length || byId[id] != null) {
+            throw new IllegalArgumentException("Invalid or duplicate cache type id: " + id);
+        }
+        Registration registration = new Registration((byte) id, type, writer, reader, accepts);
+        byId[id] = registration;
+        registrations.add(registration);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Registration<Object> registration = registrationFor(value);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        bytes.write(VERSION);
+        if (registration == null) {
+            bytes.write(JSON_TYPE);
+            bytes.writeBytes(json.serialize(value));
+            return bytes.toByteArray();
+        }
+        bytes.write(registration.id());
+        try {
+            registration.writer().write(new DataOutputStream(bytes), value);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != VERSION) {
+            return json.deserialize(bytes);
+        }
+        byte typeId = bytes[1];
+        if (typeId == JSON_TYPE) {
+            return json.deserialize(Arrays.copyOfRange(bytes, 2, bytes.length));
+        }
+        Registration<?> registration = typeId > 0 && typeId < byId.length ? byId[typeId] : null;
+        if (registration == null) {
+            throw new SerializationException("Unknown cache value type id: " + typeId);
+        }
+        try {
+            return registration.reader().read(
+                    new DataInputStream(new ByteArrayInputStream(bytes, 2, bytes.length - 2)));
+        } catch (IOException e) {
+            throw new SerializationException("Cannot deserialize " + registration.type().getSimpleName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Registration<Object> registrationFor(Object value) {
+        for (Registration<?> registration : registrations) {
+            Registration<Object> candidate = (Registration<Object>) registration;
+            if (candidate.type().isInstance(value) && candidate.accepts().test(value)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // === Кодеки DTO ===
+
+    private static void writeUser(DataOutputStream out, UserDto user) throws IOException {
+        writeNullableLong(out, user.getId());
+        writeNullableString(out, user.getUsername());
+        writeNullableString(out, user.getAvatarURL());
+    }
+
+    private static UserDto readUser(DataInputStream in) throws IOException {
+        return new UserDto(readNullableLong(in), readNullableString(in), readNullableString(in));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeUsers(DataOutputStream out, List<?> users) throws IOException {
+        out.writeInt(users.size());
+        for (UserDto user : (List<UserDto>) users) {
+            writeUser(out, user);
+        }
+    }
+
+    private static List<UserDto> readUsers(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<UserDto> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(readUser(in));
+        }
+        return users;
+    }
+
+    private static void writeSearch(DataOutputStream out, SearchUsersResponse response) throws IOException {
+        writeUsers(out, response.getUsers());
+        out.writeInt(response.getCurrentPage());
+        out.writeLong(response.getTotalItems());
+        out.writeInt(response.getTotalPages());
+    }
+
+    private static SearchUsersResponse readSearch(DataInputStream in) throws IOException {
+        return new SearchUsersResponse(readUsers(in), in.readInt(), in.readLong(), in.readInt());
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Формат значений кэшей в Redis: {@code defaultFormat} для всех, {@code formats} — по имени кэша.
+ * Бинарный формат читает и старые JSON-значения, поэтому переход на него не требует очистки Redis;
+ * обратный переход на JSON — только вместе с очисткой кэша.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.redis")
+public class CacheSerializationProperties {
+    private CacheValueFormat defaultFormat = CacheValueFormat.BINARY;
+    private Map<String, CacheValueFormat> formats = new HashMap<>();
+}
@@ -0,0 +1,9 @@
+package ru.sup.userservice.config;
+
+/** Формат значений кэша в Redis */
+public enum CacheValueFormat {
+    /** GenericJackson2JsonRedisSerializer: JSON с именем класса */
+    JSON,
+    /** {@link BinaryCacheValueSerializer}: байт версии, id типа, компактное тело */
+    BINARY
+}
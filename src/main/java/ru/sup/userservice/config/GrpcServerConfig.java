@@ -0,0 +1,65 @@
+package ru.sup.userservice.config;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC-сервер user-service (интроспекция токенов для других сервисов).
+ * Транспорт без TLS, поэтому каждый вызов проверяется перехватчиками (сервисный ключ).
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "grpc.server", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServerConfig {
+
+    private Server server;
+    private ExecutorService executor;
+
+    @Bean
+    public Server grpcServer(GrpcServerProperties properties,
+                             List<BindableService> services,
+                             List<ServerInterceptor> interceptors,
+                             Environment environment) throws IOException {
+        ServerBuilder<?> builder = ServerBuilder.forPort(properties.getPort());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Каждый вызов — в своём виртуальном потоке вместо общего кэширующего пула gRPC
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            builder.executor(executor);
+        }
+        services.forEach(builder::addService);
+        interceptors.forEach(builder::intercept);
+        server = builder.build().start();
+        log.info("gRPC server started on port {} with {} service(s)", properties.getPort(), services.size());
+        return server;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (server != null && !server.isShutdown()) {
+            try {
+                server.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                log.warn("gRPC server shutdown interrupted", e);
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "grpc.server")
+public class GrpcServerProperties {
+    private boolean enabled = true;
+    private int port = 9091;
+}
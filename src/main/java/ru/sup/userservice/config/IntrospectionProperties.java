@@ -0,0 +1,21 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Доступ к интроспекции токенов (REST {@code /introspect} и gRPC).
+ * <p>
+ * Вызывающий сервис передаёт один из {@code clientSecrets}; несколько значений — для ротации.
+ * Пустой список закрывает интроспекцию полностью.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt.introspection")
+public class IntrospectionProperties {
+    private List<String> clientSecrets = new ArrayList<>();
+}
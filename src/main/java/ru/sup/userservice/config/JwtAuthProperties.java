@@ -0,0 +1,26 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Режим аутентификации по JWT.
+ * <p>
+ * В stateless-режиме principal строится из claims токена без запроса в БД.
+ * Для путей из {@code revocationCheckPaths} пользователь всё равно загружается из БД,
+ * чтобы удалённый/переименованный пользователь не прошёл аутентификацию.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt.auth")
+public class JwtAuthProperties {
+    private boolean stateless = true;
+    private List<String> revocationCheckPaths = new ArrayList<>(List.of(
+            "/api/v1/user/update",
+            "/api/v1/user/delete"
+    ));
+}
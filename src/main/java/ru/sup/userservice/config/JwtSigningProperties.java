@@ -0,0 +1,38 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ключи подписи JWT с идентификаторами (kid).
+ * <p>
+ * Новые токены подписываются ключом {@code activeKid}; проверяются всеми ключами из {@code keys}.
+ * Если {@code activeKid} не задан, подпись идёт ключом из {@code jwt.secret} без заголовка kid (как раньше).
+ * Токены без kid проверяются ключом {@code jwt.secret}, поэтому ротация не разлогинивает пользователей.
+ * Когда такие токены истекли (не раньше срока refresh-токена после ротации), {@code acceptLegacy = false}
+ * перестаёт их принимать — старый секрет можно выводить из обращения.
+ * <p>
+ * Для HS256 задаётся {@code secret}; для ES256 и EdDSA — {@code public-key} (X.509, base64)
+ * и, для ключа подписи, {@code private-key} (PKCS#8, base64).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt.signing")
+public class JwtSigningProperties {
+    private String activeKid;
+    private boolean acceptLegacy = true;
+    private List<Key> keys = new ArrayList<>();
+
+    @Data
+    public static class Key {
+        private String kid;
+        private String algorithm = "HS256";
+        private String secret;
+        private String privateKey;
+        private String publicKey;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.sup.userservice.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import ru.sup.userservice.kafka.PartitionFinder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Консьюмер событий для сброса кэшей на всех репликах.
+ * <p>
+ * Каждая реплика должна видеть все события, поэтому партиции назначаются вручную
+ * ({@link PartitionFinder}), без группы консьюмеров и без фиксации offset: после рестарта
+ * реплика читает с конца топика — её кэш и так пуст. Брошенных групп на каждый
+ * перезапуск пода при этом не остаётся.
+ */
+@Configuration
+@EnableConfigurationProperties(KafkaProperties.class)
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class KafkaConsumerConfig {
+
+    @Bean
+    public ConsumerFactory<String, byte[]> cacheInvalidationConsumerFactory(KafkaProperties kafkaProperties,
+                                                                           ObjectProvider<SslBundles> sslBundles) {
+        Map<String, Object> configProps = new HashMap<>(
+                kafkaProperties.buildConsumerProperties(sslBundles.getIfAvailable()));
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        configProps.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public PartitionFinder cacheInvalidationPartitions(ConsumerFactory<String, byte[]> cacheInvalidationConsumerFactory) {
+        return new PartitionFinder(cacheInvalidationConsumerFactory);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> cacheInvalidationListenerContainerFactory(
+            ConsumerFactory<String, byte[]> cacheInvalidationConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(cacheInvalidationConsumerFactory);
+        factory.setBatchListener(true);
+        // Без группы фиксировать некуда: listener не подтверждает пачки, offset не коммитится
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
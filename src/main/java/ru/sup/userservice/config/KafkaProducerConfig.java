@@ -1,39 +1,60 @@
 package ru.sup.userservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Продюсер Kafka из {@code spring.kafka.producer.*} (в том числе профильных YAML).
+ * <p>
+ * Идемпотентность и acks=all фиксированы: при до 5 запросов в полёте порядок событий
+ * одного ключа (пользователя) сохраняется. linger/batch/сжатие берутся из конфигурации,
+ * иначе — значения по умолчанию для пакетной отправки из outbox.
+ * Значение — уже сериализованные байты события (JSON или protobuf, см. {@code EventSerializer}).
+ * Метрики клиента (в том числе по топикам) — {@code kafka.producer.*}.
+ */
 @Configuration
+@EnableConfigurationProperties(KafkaProperties.class)
 public class KafkaProducerConfig {
 
-    @Value("${spring.kafka.bootstrap-servers}")
-    private String bootstrapServers;
-
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    public ProducerFactory<String, byte[]> producerFactory(KafkaProperties kafkaProperties,
+                                                           ObjectProvider<SslBundles> sslBundles,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, Object> configProps = new HashMap<>(
+                kafkaProperties.buildProducerProperties(sslBundles.getIfAvailable()));
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
-        configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.putIfAbsent(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, 10);
+        configProps.putIfAbsent(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+        configProps.putIfAbsent(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        // Ограничение на одну отправку; relay после первой такой ошибки прекращает пачку
+        configProps.putIfAbsent(ProducerConfig.MAX_BLOCK_MS_CONFIG, 5000);
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(configProps);
+        meterRegistry.ifAvailable(registry -> factory.addListener(new MicrometerProducerListener<>(registry)));
+        return factory;
     }
 
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, byte[]> kafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Локальный (L1) Caffeine-кэш перед Redis для всех {@code @Cacheable}.
+ * <p>
+ * Записи живут не дольше {@code ttl}, по {@code maxSize} на каждое имя кэша.
+ * Запись и вытеснение на одной реплике рассылаются через Redis pub/sub в {@code channel},
+ * остальные реплики сбрасывают свою копию; TTL — страховка от потерянных сообщений.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.near")
+public class NearCacheProperties {
+    private boolean enabled = true;
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofSeconds(10);
+    private String channel = "user-service:cache-invalidation";
+}
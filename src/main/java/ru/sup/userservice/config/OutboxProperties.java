@@ -0,0 +1,30 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Публикация событий из таблицы outbox_event в Kafka.
+ * Relay раз в {@code pollInterval} забирает до {@code maxBatchesPerRun} пачек по {@code batchSize},
+ * отправляет их асинхронно и ждёт подтверждений не дольше {@code sendTimeout}.
+ * Если Kafka не подтвердила ни одного события пачки, relay ждёт, удваивая паузу до {@code maxBackoff}.
+ * Событие, которое Kafka отклонила {@code maxAttempts} раз без признака временной ошибки,
+ * откладывается (parked_at) и больше не отправляется.
+ * Опубликованные строки хранятся {@code retention}, затем удаляются.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "outbox.relay")
+public class OutboxProperties {
+    private boolean enabled = true;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private int batchSize = 100;
+    private int maxBatchesPerRun = 50;
+    private Duration sendTimeout = Duration.ofSeconds(10);
+    private Duration maxBackoff = Duration.ofSeconds(30);
+    private int maxAttempts = 10;
+    private Duration retention = Duration.ofDays(1);
+}
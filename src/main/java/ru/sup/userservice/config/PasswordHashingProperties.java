@@ -0,0 +1,21 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Пул и параметры BCrypt-хэширования.
+ * {@code threads = 0} — по числу доступных CPU.
+ * {@code bcryptStrength} — log2 числа раундов (4..31); хэши с меньшей стоимостью
+ * пересчитываются при следующем успешном логине.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.password-hashing")
+public class PasswordHashingProperties {
+    private int threads = 0;
+    private int queueCapacity = 64;
+    private int retryAfterSeconds = 1;
+    private int bcryptStrength = 10;
+}
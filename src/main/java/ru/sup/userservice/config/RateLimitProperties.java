@@ -0,0 +1,50 @@
+package ru.sup.userservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Ограничение частоты login / register / verifyEmail по IP и по имени пользователя.
+ * <p>
+ * {@code mode = local} — счётчики в памяти узла, {@code redis} — общие для всех узлов
+ * (при недоступности Redis используется локальный счётчик).
+ * Лимит {@code 0} отключает соответствующее измерение.
+ * Для логина основной лимит по имени — {@code perIpUsername} (пара IP + имя): чужие попытки
+ * с другого адреса не блокируют вход владельцу. Общий {@code perUsername} держится заметно выше
+ * и лишь ограничивает распределённый перебор одного аккаунта.
+ * За обратным прокси IP берётся из {@code X-Forwarded-For} только при {@code server.forward-headers-strategy}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private Mode mode = Mode.LOCAL;
+    private int maxKeys = 100_000;
+    private Limit login = new Limit(20, 5, 100, Duration.ofMinutes(1));
+    private Limit register = new Limit(5, 3, Duration.ofMinutes(10));
+    private Limit verifyEmail = new Limit(30, 5, Duration.ofMinutes(10));
+
+    public enum Mode {
+        LOCAL, REDIS
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private int perIp;
+        private int perIpUsername;
+        private int perUsername;
+        private Duration window;
+
+        public Limit(int perIp, int perUsername, Duration window) {
+            this(perIp, 0, perUsername, window);
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package ru.sup.userservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -15,16 +22,50 @@ import java.time.Duration;
 public class RedisConfig {
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory factory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+    public CacheManager cacheManager(RedisConnectionFactory factory,
+                                     NearCacheProperties nearCacheProperties,
+                                     CacheSerializationProperties serializationProperties,
+                                     StringRedisTemplate redisTemplate,
+                                     MeterRegistry meterRegistry) {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        BinaryCacheValueSerializer binary = new BinaryCacheValueSerializer(json);
+
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(factory)
+                .cacheDefaults(cacheConfiguration(serializationProperties.getDefaultFormat(), json, binary));
+        serializationProperties.getFormats().forEach((cacheName, format) ->
+                builder.withCacheConfiguration(cacheName, cacheConfiguration(format, json, binary)));
+        RedisCacheManager redisCacheManager = builder.build();
+
+        if (!nearCacheProperties.isEnabled()) {
+            return redisCacheManager;
+        }
+        // Не бин — инициализируем сами
+        redisCacheManager.afterPropertiesSet();
+        return new TwoLevelCacheManager(redisCacheManager, nearCacheProperties, redisTemplate, meterRegistry);
+    }
+
+    private static RedisCacheConfiguration cacheConfiguration(CacheValueFormat format,
+                                                              GenericJackson2JsonRedisSerializer json,
+                                                              BinaryCacheValueSerializer binary) {
+        RedisSerializer<Object> values = format == CacheValueFormat.BINARY ? binary : json;
+        return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofHours(1))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(values))
                 .prefixCacheNameWith("user-service:")
                 .disableCachingNullValues();
+    }
 
-        return RedisCacheManager.builder(factory)
-                .cacheDefaults(config)
-                .build();
+    /** Подписка на сообщения о сбросе L1-кэшей других реплик */
+    @Bean
+    @ConditionalOnProperty(prefix = "cache.near", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer nearCacheInvalidationContainer(RedisConnectionFactory factory,
+                                                                        CacheManager cacheManager,
+                                                                        NearCacheProperties nearCacheProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener((TwoLevelCacheManager) cacheManager,
+                new ChannelTopic(nearCacheProperties.getChannel()));
+        return container;
     }
 }
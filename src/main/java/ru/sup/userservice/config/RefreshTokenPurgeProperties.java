@@ -0,0 +1,23 @@
+package ru.sup.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Фоновая очистка отозванных и просроченных refresh-токенов.
+ * Удаление идёт пачками по {@code batchSize} строк в отдельных транзакциях
+ * с паузой {@code pauseBetweenBatches}, чтобы не держать длинные блокировки.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "refresh-token.purge")
+public class RefreshTokenPurgeProperties {
+    private boolean enabled = true;
+    private Duration interval = Duration.ofHours(1);
+    private int batchSize = 1000;
+    private Duration pauseBetweenBatches = Duration.ofMillis(200);
+    private int maxBatchesPerRun = 100;
+}
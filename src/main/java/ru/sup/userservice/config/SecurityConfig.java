@@ -3,6 +3,7 @@ package ru.sup.userservice.config;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,19 +14,26 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import ru.sup.userservice.security.BoundedPasswordEncoder;
 import ru.sup.userservice.security.CustomUserDetailsService;
+import ru.sup.userservice.security.PasswordHashingExecutor;
 import ru.sup.userservice.security.jwt.JwtTokenFilter;
 
+import java.util.Map;
+
 @Configuration
 @EnableMethodSecurity
 @RequiredArgsConstructor
 @Slf4j
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
     private final CustomUserDetailsService userDetailsService;
     private final JwtTokenFilter jwtTokenFilter;
 
@@ -42,11 +50,13 @@ public class SecurityConfig {
             "/webjars/**",
             "/actuator/**",
             "/swagger-config/**",
+            "/.well-known/jwks.json",
 
             // User CRUD
             "/api/v1/user/login",
             "/api/v1/user/refresh*",
             "/api/v1/user/register",
+            "/api/v1/user/introspect",
 
             // Friends list
             "/api/v1/users/*/friends"
@@ -54,30 +64,48 @@ public class SecurityConfig {
     };
 
 
+    /**
+     * Хэши хранятся с префиксом {@code {bcrypt}}; старые хэши без префикса проверяются BCrypt.
+     * BCrypt выполняется в отдельном ограниченном пуле, если он доступен в контексте.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ObjectProvider<PasswordHashingProperties> hashingProperties,
+                                           ObjectProvider<PasswordHashingExecutor> hashingExecutor) {
+        PasswordHashingProperties properties = hashingProperties.getIfAvailable(PasswordHashingProperties::new);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(properties.getBcryptStrength());
+        DelegatingPasswordEncoder delegating =
+                new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        PasswordHashingExecutor executor = hashingExecutor.getIfAvailable();
+        return executor != null ? new BoundedPasswordEncoder(delegating, executor) : delegating;
     }
 
-    /** Настройка AuthenticationProvider, чтобы Spring использовал наш UserDetailsService и BCrypt */
+    /**
+     * Настройка AuthenticationProvider, чтобы Spring использовал наш UserDetailsService и BCrypt.
+     * После успешного логина хэш с устаревшими параметрами пересчитывается через UserDetailsPasswordService.
+     */
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
         return provider;
     }
 
     /** Конфигурация AuthenticationManager (для login endpoint) */
     @Bean
-    public AuthenticationManager authManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authManager(HttpSecurity http,
+                                             DaoAuthenticationProvider authenticationProvider) throws Exception {
         AuthenticationManagerBuilder auth = http.getSharedObject(AuthenticationManagerBuilder.class);
-        auth.authenticationProvider(authenticationProvider());
+        auth.authenticationProvider(authenticationProvider);
         return auth.build();
     }
 
     /** Основная цепочка фильтров */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           DaoAuthenticationProvider authenticationProvider) throws Exception {
         AuthenticationEntryPoint unauthorizedHandler =
                 (request, response, ex) -> {
                     log.warn("Unauthorized request to {}: {}", request.getRequestURI(), ex.getMessage());
@@ -94,7 +122,7 @@ public class SecurityConfig {
                                 .requestMatchers(PUBLIC_URLS).permitAll()
                                 .anyRequest().authenticated()
                 )
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
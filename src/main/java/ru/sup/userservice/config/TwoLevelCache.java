@@ -0,0 +1,143 @@
+package ru.sup.userservice.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш из двух уровней: Caffeine в памяти реплики (L1) и общий Redis (L2).
+ * <p>
+ * Чтение идёт в L1, при промахе — в Redis, найденное значение кладётся в L1.
+ * Запись и вытеснение выполняются в обоих уровнях и рассылаются остальным репликам
+ * через {@link TwoLevelCacheManager}. Ключи L1 — строки, как и в {@code RedisCache}.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager manager;
+
+    final LongAdder localHits = new LongAdder();
+    final LongAdder localMisses = new LongAdder();
+    final LongAdder remoteHits = new LongAdder();
+    final LongAdder remoteMisses = new LongAdder();
+
+    TwoLevelCache(String name,
+                  com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local,
+                  Cache remote,
+                  TwoLevelCacheManager manager) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper cached = local.getIfPresent(localKey);
+        if (cached != null) {
+            localHits.increment();
+            return cached;
+        }
+        localMisses.increment();
+
+        ValueWrapper value = remote.get(key);
+        if (value == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        local.put(localKey, value);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        // RedisCache сам синхронизирует загрузку; результат кладём в L1 без рассылки —
+        // у других реплик этого ключа в L1 нет или он совпадает с Redis
+        T value = remote.get(key, valueLoader);
+        local.put(localKey(key), new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), new SimpleValueWrapper(value));
+        manager.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        manager.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    /** Сообщение от другой реплики: сбросить только L1 */
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    /** Ключ записи в Redis для пакетного удаления; null, если L2 — не {@link RedisCache} */
+    String remoteKey(Object key) {
+        return remote instanceof RedisCache redisCache
+                ? redisCache.getCacheConfiguration().getKeyPrefixFor(name) + localKey(key)
+                : null;
+    }
+
+    void evictRemote(Object key) {
+        remote.evict(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    long localSize() {
+        return local.estimatedSize();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
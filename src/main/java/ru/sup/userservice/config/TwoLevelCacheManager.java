@@ -0,0 +1,204 @@
+package ru.sup.userservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Оборачивает кэши Redis в {@link TwoLevelCache} с Caffeine L1 на каждое имя кэша.
+ * <p>
+ * Согласованность L1 между репликами — через Redis pub/sub: сообщение
+ * {@code "<instance> <cache> [key]"} (без ключа — очистка всего кэша). Свои сообщения игнорируются.
+ * Метрики: {@code cache.near.requests{cache,level,result}}, {@code cache.near.hit.ratio{cache,level}},
+ * {@code cache.near.size{cache}}.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remote;
+    private final NearCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remote,
+                                NearCacheProperties properties,
+                                StringRedisTemplate redisTemplate,
+                                MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(@NonNull String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> createCache(n, remoteCache));
+    }
+
+    @Override
+    @NonNull
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TwoLevelCache createCache(String name, Cache remoteCache) {
+        TwoLevelCache cache = new TwoLevelCache(name,
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMaxSize())
+                        .expireAfterWrite(properties.getTtl())
+                        .build(),
+                remoteCache, this);
+        bindMetrics(cache);
+        return cache;
+    }
+
+    private void bindMetrics(TwoLevelCache cache) {
+        registerLevel(cache.getName(), "l1", cache.localHits, cache.localMisses);
+        registerLevel(cache.getName(), "l2", cache.remoteHits, cache.remoteMisses);
+        Gauge.builder("cache.near.size", cache, TwoLevelCache::localSize)
+                .tag("cache", cache.getName())
+                .description("Записей в локальном кэше")
+                .register(meterRegistry);
+    }
+
+    private void registerLevel(String cacheName, String level, LongAdder hits, LongAdder misses) {
+        FunctionCounter.builder("cache.near.requests", hits, LongAdder::sum)
+                .tags("cache", cacheName, "level", level, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.near.requests", misses, LongAdder::sum)
+                .tags("cache", cacheName, "level", level, "result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cache.near.hit.ratio", () -> hitRatio(hits.sum(), misses.sum()))
+                .tags("cache", cacheName, "level", level)
+                .description("Доля попаданий уровня (l2 — среди промахов l1)")
+                .register(meterRegistry);
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Вытеснить ключи нескольких кэшей разом: DEL всех записей и рассылка репликам —
+     * один конвейер Redis, затем сброс своего L1.
+     */
+    public void evictAll(Map<String, ? extends Collection<?>> keysByCache) {
+        List<String> redisKeys = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        List<Runnable> localEvictions = new ArrayList<>();
+        keysByCache.forEach((cacheName, keys) -> {
+            TwoLevelCache cache = (TwoLevelCache) getCache(cacheName);
+            if (cache == null) {
+                return;
+            }
+            for (Object key : keys) {
+                String redisKey = cache.remoteKey(key);
+                if (redisKey != null) {
+                    redisKeys.add(redisKey);
+                } else {
+                    cache.evictRemote(key);
+                }
+                String localKey = String.valueOf(key);
+                messages.add(instanceId + ' ' + cacheName + ' ' + localKey);
+                localEvictions.add(() -> cache.evictLocal(localKey));
+            }
+        });
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                if (!redisKeys.isEmpty()) {
+                    redis.del(redisKeys.toArray(String[]::new));
+                }
+                messages.forEach(message -> redis.publish(properties.getChannel(), message));
+                return null;
+            });
+        } catch (DataAccessException e) {
+            // Записи Redis доживут до TTL; свой L1 сбрасываем в любом случае
+            log.warn("Batched cache eviction failed: {}", e.getMessage());
+        }
+        localEvictions.forEach(Runnable::run);
+    }
+
+    /**
+     * Сбросить ключи только в L1 этой реплики — без Redis и рассылки. Для источников,
+     * которые и так доходят до каждой реплики (консьюмер Kafka).
+     */
+    public void evictAllLocal(Map<String, ? extends Collection<?>> keysByCache) {
+        keysByCache.forEach((cacheName, keys) -> {
+            TwoLevelCache cache = caches.get(cacheName);
+            if (cache != null) {
+                keys.forEach(key -> cache.evictLocal(String.valueOf(key)));
+            }
+        });
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(instanceId + ' ' + cacheName + ' ' + key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(instanceId + ' ' + cacheName);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(), message);
+        } catch (DataAccessException e) {
+            // Реплики без сообщения увидят изменение не позже ttl
+            log.warn("Cache invalidation not published: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(" ", 3);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts.length == 2) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.sup.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Режим виртуальных потоков ({@code spring.threads.virtual.enabled=true}).
+ * <p>
+ * Tomcat, {@code applicationTaskExecutor} (@Async) и планировщик (@Scheduled) переключает сам Spring Boot,
+ * gRPC-сервер — {@link GrpcServerConfig}. Здесь — защита Hikari: число одновременных
+ * getConnection() ограничено размером пула.
+ * Закрепление (pinning) на synchronized в клиентах Kafka и Lettuce снято в JDK 24+ (JEP 491);
+ * оставшиеся случаи видны в JFR как {@code jdk.VirtualThreadPinned}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    /** Нижняя граница connection-timeout в Hikari */
+    private static final long MIN_HIKARI_CONNECTION_TIMEOUT_MS = 250;
+
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    // Семафор и Hikari ждут по очереди: делим connection-timeout, чтобы
+                    // запрос не ждал соединение вдвое дольше настроенного
+                    long total = hikari.getConnectionTimeout();
+                    long poolTimeout = Math.max(MIN_HIKARI_CONNECTION_TIMEOUT_MS, total / 2);
+                    hikari.setConnectionTimeout(poolTimeout);
+                    log.info("Virtual threads: limiting '{}' to {} concurrent connections, wait {}ms + {}ms",
+                            beanName, hikari.getMaximumPoolSize(), Math.max(0, total - poolTimeout), poolTimeout);
+                    return new ConnectionLimitingDataSource(
+                            hikari, hikari.getMaximumPoolSize(), Math.max(0, total - poolTimeout));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource limited) {
+                Gauge.builder("db.connection.limit.waiting", limited, ConnectionLimitingDataSource::getWaitingThreads)
+                        .description("Потоки, ожидающие соединение с БД")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -18,19 +18,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.*;
 import ru.sup.userservice.dto.FriendshipDto;
 import ru.sup.userservice.dto.FriendshipStatusDto;
 import ru.sup.userservice.dto.UserDto;
-import ru.sup.userservice.entity.User;
+import ru.sup.userservice.security.AuthenticatedUser;
+import ru.sup.userservice.security.CurrentUser;
 import ru.sup.userservice.service.AvatarStorageService;
 import ru.sup.userservice.service.FriendshipService;
-import ru.sup.userservice.service.UserService;
 
 import java.util.List;
 
@@ -44,7 +41,6 @@ import java.util.List;
 public class FriendshipControllerV2 {
 
     private final FriendshipService friendshipService;
-        private final UserService userService;
         private final AvatarStorageService avatarStorageService;
 
     /**
@@ -64,9 +60,10 @@ public class FriendshipControllerV2 {
     @PostMapping("/friends/{friendId}")
     public ResponseEntity<FriendshipDto> sendFriendRequest(
             @Parameter(description = "ID пользователя, которому отправляется запрос", required = true, example = "2")
-            @PathVariable @Min(1) Long friendId) {
+            @PathVariable @Min(1) Long friendId,
+            @CurrentUser AuthenticatedUser currentUser) {
 
-        Long userId = getCurrentUserId();
+        Long userId = currentUser.userId();
         log.info("Sending friend request: user {} -> {}", userId, friendId);
 
         var friendship = friendshipService.sendFriendRequest(userId, friendId);
@@ -89,9 +86,10 @@ public class FriendshipControllerV2 {
     @PutMapping("/friends/{friendId}/accept")
     public ResponseEntity<FriendshipDto> acceptFriendRequest(
             @Parameter(description = "ID пользователя, который отправил запрос", required = true, example = "1")
-            @PathVariable @Min(1) Long friendId) {
+            @PathVariable @Min(1) Long friendId,
+            @CurrentUser AuthenticatedUser currentUser) {
 
-        Long userId = getCurrentUserId();
+        Long userId = currentUser.userId();
         log.info("Accepting friend request: user {} <- {}", userId, friendId);
 
         var friendship = friendshipService.acceptFriendRequest(userId, friendId);
@@ -111,9 +109,10 @@ public class FriendshipControllerV2 {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void rejectFriendRequest(
             @Parameter(description = "ID пользователя, который отправил запрос", required = true, example = "1")
-            @PathVariable @Min(1) Long friendId) {
+            @PathVariable @Min(1) Long friendId,
+            @CurrentUser AuthenticatedUser currentUser) {
 
-        Long userId = getCurrentUserId();
+        Long userId = currentUser.userId();
         log.info("Rejecting friend request: user {} -/-> {}", userId, friendId);
 
         friendshipService.rejectFriendRequest(userId, friendId);
@@ -132,9 +131,10 @@ public class FriendshipControllerV2 {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void cancelFriendRequest(
             @Parameter(description = "ID пользователя, которому был отправлен запрос", required = true, example = "2")
-            @PathVariable @Min(1) Long friendId) {
+            @PathVariable @Min(1) Long friendId,
+            @CurrentUser AuthenticatedUser currentUser) {
 
-        Long userId = getCurrentUserId();
+        Long userId = currentUser.userId();
         log.info("Cancelling friend request: user {} -/-> {}", userId, friendId);
 
         friendshipService.cancelFriendRequest(userId, friendId);
@@ -153,9 +153,10 @@ public class FriendshipControllerV2 {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void removeFriend(
             @Parameter(description = "ID друга, которого нужно удалить", required = true, example = "2")
-            @PathVariable @Min(1) Long friendId) {
+            @PathVariable @Min(1) Long friendId,
+            @CurrentUser AuthenticatedUser currentUser) {
 
-        Long userId = getCurrentUserId();
+        Long userId = currentUser.userId();
         log.info("Removing friend: user {} -/-> {}", userId, friendId);
 
         friendshipService.removeFriend(userId, friendId);
@@ -174,9 +175,10 @@ public class FriendshipControllerV2 {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void blockUser(
             @Parameter(description = "ID пользователя для блокировки", required = true, example = "2")
-            @PathVariable @Min(1) Long targetId) {
+            @PathVariable @Min(1) Long targetId,
+            @CurrentUser AuthenticatedUser currentUser) {
 
-        Long userId = getCurrentUserId();
+        Long userId = currentUser.userId();
         log.info("Blocking user: user {} -X-> {}", userId, targetId);
 
         friendshipService.blockUser(userId, targetId);
@@ -193,9 +195,10 @@ public class FriendshipControllerV2 {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void unblockUser(
             @Parameter(description = "ID пользователя для разблокировки", required = true, example = "2")
-            @PathVariable @Min(1) Long targetId) {
+            @PathVariable @Min(1) Long targetId,
+            @CurrentUser AuthenticatedUser currentUser) {
 
-        Long userId = getCurrentUserId();
+        Long userId = currentUser.userId();
         log.info("Unblocking user: user {} -/X-> {}", userId, targetId);
 
         friendshipService.unblockUser(userId, targetId);
@@ -218,9 +221,11 @@ public class FriendshipControllerV2 {
             @RequestParam(defaultValue = "20") @Positive Integer size,
 
             @Parameter(description = "Сортировка (например: username,asc)", example = "username,asc")
-            @RequestParam(required = false) String sort) {
+            @RequestParam(required = false) String sort,
 
-        Long userId = getCurrentUserId();
+            @CurrentUser AuthenticatedUser currentUser) {
+
+        Long userId = currentUser.userId();
         Pageable pageable = createPageable(page, size, sort);
         var friends = friendshipService.getFriendsPage(userId, pageable);
         Page<UserDto> response = friends.map(this::withPresignedAvatar);
@@ -236,8 +241,8 @@ public class FriendshipControllerV2 {
                     content = @Content(schema = @Schema(implementation = FriendshipDto.class)))
     })
     @GetMapping("/friends/requests/incoming")
-    public ResponseEntity<List<FriendshipDto>> getIncomingRequests() {
-        Long userId = getCurrentUserId();
+    public ResponseEntity<List<FriendshipDto>> getIncomingRequests(@CurrentUser AuthenticatedUser currentUser) {
+        Long userId = currentUser.userId();
         var requests = friendshipService.getIncomingRequests(userId);
         return ResponseEntity.ok(requests);
     }
@@ -251,8 +256,8 @@ public class FriendshipControllerV2 {
                     content = @Content(schema = @Schema(implementation = FriendshipDto.class)))
     })
     @GetMapping("/friends/requests/outgoing")
-    public ResponseEntity<List<FriendshipDto>> getOutgoingRequests() {
-        Long userId = getCurrentUserId();
+    public ResponseEntity<List<FriendshipDto>> getOutgoingRequests(@CurrentUser AuthenticatedUser currentUser) {
+        Long userId = currentUser.userId();
         var requests = friendshipService.getOutgoingRequests(userId);
         return ResponseEntity.ok(requests);
     }
@@ -268,9 +273,10 @@ public class FriendshipControllerV2 {
     @GetMapping("/friends/{friendId}/status")
     public ResponseEntity<FriendshipStatusDto> getFriendshipStatus(
             @Parameter(description = "ID второго пользователя", required = true, example = "2")
-            @PathVariable @Min(1) Long friendId) {
+            @PathVariable @Min(1) Long friendId,
+            @CurrentUser AuthenticatedUser currentUser) {
 
-        Long userId = getCurrentUserId();
+        Long userId = currentUser.userId();
         var status = friendshipService.getFriendshipStatus(userId, friendId);
         return ResponseEntity.ok(status);
     }
@@ -283,8 +289,8 @@ public class FriendshipControllerV2 {
             @ApiResponse(responseCode = "200", description = "Количество получено")
     })
     @GetMapping("/friends/count")
-    public ResponseEntity<Long> getFriendsCount() {
-        Long userId = getCurrentUserId();
+    public ResponseEntity<Long> getFriendsCount(@CurrentUser AuthenticatedUser currentUser) {
+        Long userId = currentUser.userId();
         var count = friendshipService.getFriendsCount(userId);
         return ResponseEntity.ok(count);
     }
@@ -299,27 +305,16 @@ public class FriendshipControllerV2 {
     @GetMapping("/friends/{friendId}/check")
     public ResponseEntity<Boolean> areFriends(
             @Parameter(description = "ID второго пользователя", required = true, example = "2")
-            @PathVariable @Min(1) Long friendId) {
+            @PathVariable @Min(1) Long friendId,
+            @CurrentUser AuthenticatedUser currentUser) {
 
-        Long userId = getCurrentUserId();
+        Long userId = currentUser.userId();
         var areFriends = friendshipService.areFriends(userId, friendId);
         return ResponseEntity.ok(areFriends);
     }
 
     // ==================== PRIVATE HELPERS ====================
 
-    private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || authentication.getName() == null
-                || "anonymousUser".equalsIgnoreCase(authentication.getName())) {
-            throw new UsernameNotFoundException("User is not authenticated");
-        }
-
-        return userService.findByUsername(authentication.getName())
-                .map(User::getId)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-    }
-
     private Pageable createPageable(Integer page, Integer size, String sort) {
         if (sort != null && !sort.isEmpty()) {
             String[] sortParams = sort.split(",");
@@ -0,0 +1,35 @@
+package ru.sup.userservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.sup.userservice.security.jwt.JwtKeyRing;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "JWKS", description = "Публичные ключи для проверки JWT другими сервисами")
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    @Operation(
+            summary = "Публичные ключи подписи JWT",
+            description = "JWK Set с ES256/EdDSA ключами (по kid). HS256-ключи не публикуются."
+    )
+    @ApiResponse(responseCode = "200", description = "JWK Set")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(Map.of("keys", keyRing.publicJwks()));
+    }
+}
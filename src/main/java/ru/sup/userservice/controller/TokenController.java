@@ -12,19 +12,25 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import ru.sup.userservice.dto.request.IntrospectTokensRequest;
 import ru.sup.userservice.dto.request.RefreshRequest;
 import ru.sup.userservice.dto.response.AuthResponse;
-import ru.sup.userservice.entity.RefreshToken;
-import ru.sup.userservice.entity.User;
-import ru.sup.userservice.repository.RefreshTokenRepository;
+import ru.sup.userservice.dto.response.TokenIntrospectionResponse;
+import ru.sup.userservice.security.IntrospectionClientAuthenticator;
 import ru.sup.userservice.security.jwt.JwtUtil;
+import ru.sup.userservice.service.RefreshTokenStore;
+import ru.sup.userservice.service.StoredRefreshToken;
+import ru.sup.userservice.service.TokenIntrospectionService;
 import ru.sup.userservice.service.UserService;
 
 import java.time.Instant;
+import java.util.List;
 
 @RestController
 @RequestMapping("api/v1/user")
@@ -36,8 +42,10 @@ public class TokenController {
     private static final Logger logger = LoggerFactory.getLogger(TokenController.class);
 
     private final UserService userService;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final JwtUtil jwtUtil;
+    private final TokenIntrospectionService introspectionService;
+    private final IntrospectionClientAuthenticator introspectionClientAuthenticator;
 
     // ==============================
     //        REFRESH TOKEN
@@ -73,37 +81,36 @@ public class TokenController {
                 throw new IllegalArgumentException("No refresh token found in request");
             }
 
-            // Находим refresh-токен в БД
-            RefreshToken storedToken = refreshTokenRepository.findByToken(refreshTokenValue)
+            // Находим refresh-токен в хранилище по его SHA-256
+            StoredRefreshToken storedToken = refreshTokenStore.findByToken(refreshTokenValue)
                     .orElseThrow(() -> new IllegalArgumentException("Refresh token not found"));
 
             // Проверяем, не был ли отозван токен
-            if (storedToken.isRevoked()) {
+            if (storedToken.revoked()) {
                 throw new IllegalArgumentException("Refresh token has been revoked");
             }
 
             // Проверяем срок действия токена
-            User user = storedToken.getUser();
-            UserDetails userDetails = userService.buildUserDetails(user);
+            Long userId = storedToken.userId();
+            String username = storedToken.username();
 
-            if (storedToken.getExpiryDate().isAfter(Instant.now())) {
+            if (storedToken.expiryDate().isAfter(Instant.now())) {
                 // Токен ещё жив — создаём новый access token, refresh остаётся прежним
-                String newAccessToken = jwtUtil.generateAccessToken(userDetails);
-                log.info("Обновлён access-токен по действующему refresh для пользователя {}", user.getUsername());
-                return new AuthResponse(newAccessToken, storedToken.getToken());
+                String newAccessToken = jwtUtil.generateAccessToken(userId, username);
+                log.info("Обновлён access-токен по действующему refresh для пользователя {}", username);
+                return new AuthResponse(newAccessToken, refreshTokenValue);
             } else {
                 // Токен истёк — помечаем как revoked
-                storedToken.setRevoked(true);
-                refreshTokenRepository.save(storedToken);
+                refreshTokenStore.revoke(refreshTokenValue);
 
                 // Создаём новый refresh-токен
-                RefreshToken newRefreshToken = userService.createAndSaveRefreshToken(user, userDetails);
+                String newRefreshToken = userService.createAndSaveRefreshToken(userId, username);
 
                 // Создаём новый access-токен
-                String newAccessToken = jwtUtil.generateAccessToken(userDetails);
+                String newAccessToken = jwtUtil.generateAccessToken(userId, username);
 
-                log.info("Refresh-токен обновлён для пользователя {}", user.getUsername());
-                return new AuthResponse(newAccessToken, newRefreshToken.getToken());
+                log.info("Refresh-токен обновлён для пользователя {}", username);
+                return new AuthResponse(newAccessToken, newRefreshToken);
             }
 
         } catch (Exception e) {
@@ -111,4 +118,43 @@ public class TokenController {
             throw new RuntimeException("Ошибка обновления токена", e);
         }
     }
+
+    // ==============================
+    //      TOKEN INTROSPECTION
+    // ==============================
+    @Operation(
+            summary = "Пакетная проверка access токенов",
+            description = "Для других сервисов: принимает до jwt.introspection.max-batch-size токенов "
+                    + "и возвращает для каждого active, userId, username и срок действия. "
+                    + "Порядок ответов совпадает с порядком токенов. "
+                    + "Требует сервисный ключ в заголовке X-Service-Token."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Результаты проверки",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    [
+                                      {"active": true, "userId": 42, "username": "alice", "expiresAt": 1735689600000},
+                                      {"active": false, "userId": null, "username": null, "expiresAt": null}
+                                    ]
+                                    """))),
+            @ApiResponse(responseCode = "400", description = "Слишком много токенов в запросе"),
+            @ApiResponse(responseCode = "401", description = "Нет или неверный сервисный ключ")
+    })
+    @PostMapping("/introspect")
+    public ResponseEntity<List<TokenIntrospectionResponse>> introspect(
+            @RequestHeader(value = IntrospectionClientAuthenticator.HEADER, required = false) String serviceToken,
+            @RequestBody IntrospectTokensRequest request) {
+        // Эндпоинт вне JWT-аутентификации: доступ только сервисам со своим ключом
+        if (!introspectionClientAuthenticator.isAuthorized(serviceToken)) {
+            log.warn("Introspection rejected: missing or invalid service token");
+            return ResponseEntity.status(401).build();
+        }
+        try {
+            return ResponseEntity.ok(introspectionService.introspect(request.getTokens()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Introspection rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -8,27 +8,30 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.transaction.Transactional;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.bind.annotation.*;
+import ru.sup.userservice.dto.UserDto;
 import ru.sup.userservice.dto.request.*;
 import ru.sup.userservice.dto.response.AvatarAccessUrlResponse;
 import ru.sup.userservice.dto.response.AuthResponse;
 import ru.sup.userservice.dto.response.AvatarUploadUrlResponse;
 import ru.sup.userservice.dto.response.UserProfileResponse;
 import ru.sup.userservice.entity.User;
-import ru.sup.userservice.kafka.UserEventProducer;
+import ru.sup.userservice.security.AuthenticatedUser;
+import ru.sup.userservice.security.CurrentUser;
+import ru.sup.userservice.security.ratelimit.RateLimitedAction;
+import ru.sup.userservice.security.ratelimit.RateLimiter;
 import ru.sup.userservice.service.AvatarStorageService;
 import ru.sup.userservice.service.UserService;
 
-import java.util.Optional;
-
 @RestController
 @RequestMapping("api/v1/user")
 @RequiredArgsConstructor
@@ -38,8 +41,8 @@ public class UserController {
 
 
     private final UserService userService;
-    private final UserEventProducer userEventProducer;
     private final AvatarStorageService avatarStorageService;
+    private final RateLimiter rateLimiter;
 
     // ==============================
     //        REGISTER
@@ -61,28 +64,23 @@ public class UserController {
             @ApiResponse(responseCode = "409", description = "Имя пользователя уже используется",
                     content = @Content(mediaType = "text/plain",
                             examples = @ExampleObject(value = "Username is already in use"))),
+            @ApiResponse(responseCode = "429", description = "Слишком много попыток, повторите после Retry-After"),
+            @ApiResponse(responseCode = "503", description = "Сервис перегружен, повторите после Retry-After"),
             @ApiResponse(responseCode = "500", description = "Ошибка при регистрации",
                     content = @Content(mediaType = "text/plain",
                             examples = @ExampleObject(value = "Registration failed")))
     })
     @PostMapping("/register")
-    @Transactional
-    public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
+    public ResponseEntity<?> register(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        rateLimiter.check(RateLimitedAction.REGISTER, httpRequest.getRemoteAddr(), request.getUsername());
         try {
             log.info("Register user with username: {}", request.getUsername());
-            AuthResponse response = userService.register(request);
-            Optional<User> user = userService.findByUsername(request.getUsername());
-            if(user.isPresent()){
-                userEventProducer.sendUserCreated(user.get().getId(), user.get().getUsername());
-                return ResponseEntity.ok(response);
-            }else {
-                log.error("Error during user registration");
-                return ResponseEntity.status(500).body("Registration failed");
-            }
+            // user.created пишется в outbox в той же транзакции, что и пользователь
+            return ResponseEntity.ok(userService.register(request));
         } catch (IllegalArgumentException e) {
             log.error("Username is already in use", e);
             return ResponseEntity.status(409).body("Username is already in use");
-        } catch (Exception e) {
+        } catch (DataAccessException e) {
             log.error("Error during user registration", e);
             return ResponseEntity.status(500).body("Registration failed");
         }
@@ -108,18 +106,20 @@ public class UserController {
             @ApiResponse(responseCode = "401", description = "Неверное имя пользователя или пароль",
                     content = @Content(mediaType = "text/plain",
                             examples = @ExampleObject(value = "Invalid username or password"))),
+            @ApiResponse(responseCode = "429", description = "Слишком много попыток, повторите после Retry-After"),
+            @ApiResponse(responseCode = "503", description = "Сервис перегружен, повторите после Retry-After"),
             @ApiResponse(responseCode = "500", description = "Ошибка при авторизации",
                     content = @Content(mediaType = "text/plain",
                             examples = @ExampleObject(value = "Internal server error")))
     })
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        rateLimiter.check(RateLimitedAction.LOGIN, httpRequest.getRemoteAddr(), request.getUsername());
         try {
             log.info("Login user with username: {}", request.getUsername());
             AuthResponse response = userService.login(request);
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error during user login", e);
+        } catch (AuthenticationException e) {
             return ResponseEntity.status(401).body("Invalid username or password");
         }
     }
@@ -138,10 +138,9 @@ public class UserController {
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера"),
     })
     @DeleteMapping("/delete")
-    public ResponseEntity<?> delete(Authentication authentication){
+    public ResponseEntity<?> delete(@CurrentUser AuthenticatedUser currentUser){
         try {
-            String currentUsername = authentication.getName();
-            User user = userService.findByUsername(currentUsername)
+            User user = userService.findById(currentUser.userId())
                     .orElseThrow(() -> new UsernameNotFoundException("User not found"));
             log.info("Deleting user {}", user.getUsername());
             userService.deleteUser(user);
@@ -166,22 +165,18 @@ public class UserController {
     })
     @PutMapping("/update")
     public ResponseEntity<AuthResponse> update(@RequestBody UpdateRequest request,
-                                               Authentication authentication) {
-        String currentUsername = authentication.getName();
-        User user = userService.findByUsername(currentUsername)
+                                               @CurrentUser AuthenticatedUser currentUser) {
+        User user = userService.findById(currentUser.userId())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         User newData = new User();
         boolean changed = false;
-        boolean changedUserName = false;
-        String oldUserName = user.getUsername();
 
         // ✅ обновляем логин, если передан
         if (request.getUsername() != null && !request.getUsername().isBlank()
                 && !request.getUsername().equals(user.getUsername())) {
             newData.setUsername(request.getUsername());
             changed = true;
-            changedUserName = true;
         }
 
         // ✅ обновляем пароль, если передан
@@ -209,9 +204,6 @@ public class UserController {
 
         // ⚙️ обновляем пользователя через сервис
         AuthResponse response = userService.update(user, newData);
-        if (changedUserName){
-            userEventProducer.sendUserUpdated(user.getId(),"username", oldUserName, user.getUsername());
-        }
         return ResponseEntity.ok(response);
     }
 
@@ -228,13 +220,11 @@ public class UserController {
         @PostMapping("/avatar/upload-url")
         public ResponseEntity<AvatarUploadUrlResponse> createAvatarUploadUrl(
             @RequestBody AvatarUploadUrlRequest request,
-            Authentication authentication
+            @CurrentUser AuthenticatedUser currentUser
         ) {
-        String currentUsername = authentication.getName();
-        User user = userService.findByUsername(currentUsername)
+        User user = userService.findById(currentUser.userId())
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        String oldAvatar = user.getAvatarURL();
         AvatarUploadUrlResponse response = avatarStorageService.createAvatarUploadUrl(
             user.getId(),
             request.getContentType(),
@@ -242,7 +232,6 @@ public class UserController {
         );
 
         userService.updateAvatarUrl(user, response.getAvatarUrl());
-        userEventProducer.sendUserUpdated(user.getId(), "avatarURL", oldAvatar, response.getAvatarUrl());
 
         return ResponseEntity.ok(response);
         }
@@ -258,9 +247,8 @@ public class UserController {
             @ApiResponse(responseCode = "404", description = "У пользователя нет аватарки")
         })
         @GetMapping("/avatar/access-url")
-        public ResponseEntity<AvatarAccessUrlResponse> createAvatarAccessUrl(Authentication authentication) {
-        String currentUsername = authentication.getName();
-        User user = userService.findByUsername(currentUsername)
+        public ResponseEntity<AvatarAccessUrlResponse> createAvatarAccessUrl(@CurrentUser AuthenticatedUser currentUser) {
+        UserDto user = userService.getUserById(currentUser.userId())
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         String avatarUrl = user.getAvatarURL();
@@ -288,25 +276,16 @@ public class UserController {
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
     @GetMapping("/me")
-    public ResponseEntity<UserProfileResponse> getMyProfile(Authentication authentication) {
-        String currentUsername = authentication.getName();
-        User user = userService.findByUsername(currentUsername)
+    public ResponseEntity<UserProfileResponse> getMyProfile(@CurrentUser AuthenticatedUser currentUser) {
+        UserProfileResponse profile = userService.getProfile(currentUser.userId())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        String avatarUrl = null;
-        if (user.getAvatarURL() != null && !user.getAvatarURL().isBlank()) {
-            avatarUrl = avatarStorageService.createAvatarAccessUrl(user.getAvatarURL());
+        if (profile.getAvatarUrl() != null && !profile.getAvatarUrl().isBlank()) {
+            profile.setAvatarUrl(avatarStorageService.createAvatarAccessUrl(profile.getAvatarUrl()));
+        } else {
+            profile.setAvatarUrl(null);
         }
 
-        UserProfileResponse profile = new UserProfileResponse(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getPhone(),
-                user.isEmailVerification(),
-                avatarUrl
-        );
-
         return ResponseEntity.ok(profile);
     }
 
@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,10 @@ import ru.sup.userservice.dto.UserDto;
 import ru.sup.userservice.dto.request.VerificationEmailRequest;
 import ru.sup.userservice.dto.response.SearchUsersResponse;
 import ru.sup.userservice.entity.User;
+import ru.sup.userservice.security.AuthenticatedUser;
+import ru.sup.userservice.security.CurrentUser;
+import ru.sup.userservice.security.ratelimit.RateLimitedAction;
+import ru.sup.userservice.security.ratelimit.RateLimiter;
 import ru.sup.userservice.service.AvatarStorageService;
 import ru.sup.userservice.service.UserService;
 
@@ -31,6 +36,7 @@ public class UtilsController {
 
     private final UserService userService;
         private final AvatarStorageService avatarStorageService;
+    private final RateLimiter rateLimiter;
 
 
     // ==============================
@@ -144,16 +150,18 @@ public class UtilsController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Email подтвержден"),
             @ApiResponse(responseCode = "406", description = "Код неверный"),
+            @ApiResponse(responseCode = "429", description = "Слишком много попыток, повторите после Retry-After"),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера"),
     })
     @PostMapping("/verifyEmail")
     public ResponseEntity<?> verifyEmail(
             @RequestBody VerificationEmailRequest request,
-            Authentication authentication
+            @CurrentUser AuthenticatedUser currentUser,
+            HttpServletRequest httpRequest
     ){
+        rateLimiter.check(RateLimitedAction.VERIFY_EMAIL, httpRequest.getRemoteAddr(), currentUser.username());
         try{
-            String currentUsername = authentication.getName();
-            User user = userService.findByUsername(currentUsername)
+            User user = userService.findById(currentUser.userId())
                     .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
             int status = userService.verifyEmail(user, request.getCode());
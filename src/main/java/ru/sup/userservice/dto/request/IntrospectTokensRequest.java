@@ -0,0 +1,14 @@
+package ru.sup.userservice.dto.request;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class IntrospectTokensRequest {
+
+    private List<String> tokens;
+
+}
@@ -0,0 +1,22 @@
+package ru.sup.userservice.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenIntrospectionResponse {
+    private boolean active;
+
+    private Long userId;
+
+    private String username;
+
+    /** Срок действия токена, epoch ms */
+    private Long expiresAt;
+
+    public static TokenIntrospectionResponse inactive() {
+        return new TokenIntrospectionResponse(false, null, null, null);
+    }
+}
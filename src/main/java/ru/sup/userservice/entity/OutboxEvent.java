@@ -0,0 +1,67 @@
+package ru.sup.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/** Событие Kafka, записанное в транзакции бизнес-изменения; публикует {@code OutboxRelay} */
+@Entity
+@Table(name = "outbox_event")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    /** Ключ партиционирования Kafka — id пользователя, к которому относится событие */
+    @Column(name = "message_key", nullable = false)
+    private String messageKey;
+
+    /** Тип события, уходит в заголовок {@code event-type} */
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    /** Сериализованное событие: JSON или protobuf, см. {@code contentType} */
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "schema_version", nullable = false)
+    private int schemaVersion;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /** null — ещё не отправлено в Kafka */
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    /** Сколько раз Kafka отклонила событие без надежды на повтор */
+    @Column(nullable = false)
+    private int attempts;
+
+    /** Не null — попытки исчерпаны, relay событие больше не берёт */
+    @Column(name = "parked_at")
+    private Instant parkedAt;
+
+    public OutboxEvent(String topic, String messageKey, String eventType,
+                       byte[] payload, String contentType, int schemaVersion) {
+        this.topic = topic;
+        this.messageKey = messageKey;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.contentType = contentType;
+        this.schemaVersion = schemaVersion;
+        this.createdAt = Instant.now();
+    }
+}
@@ -2,6 +2,7 @@ package ru.sup.userservice.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ru.sup.userservice.security.jwt.TokenDigest;
 
 import java.time.Instant;
 
@@ -16,7 +17,12 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    /** SHA-256 от refresh-токена: сам токен в БД не хранится */
+    @Column(name = "token_hash", nullable = false, unique = true, length = TokenDigest.LENGTH)
+    private byte[] tokenHash;
+
+    /** Исходное значение — есть только у только что выпущенного токена */
+    @Transient
     private String token;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -25,5 +31,11 @@ public class RefreshToken {
 
     private Instant expiryDate;
     private boolean revoked;
-}
 
+    @PrePersist
+    void hashToken() {
+        if (tokenHash == null && token != null) {
+            tokenHash = TokenDigest.sha256(token);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.sup.userservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Превышен лимит запросов для IP или имени пользователя.
+ * Отдаётся клиенту как 429 с заголовком Retry-After.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public RateLimitExceededException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.sup.userservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Запрос отклонён из-за перегрузки (очередь ограниченного ресурса заполнена).
+ * Отдаётся клиенту как 503 с заголовком Retry-After.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
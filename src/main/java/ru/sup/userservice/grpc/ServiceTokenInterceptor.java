@@ -0,0 +1,38 @@
+package ru.sup.userservice.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.security.IntrospectionClientAuthenticator;
+
+import java.util.Locale;
+
+/** Вызовы gRPC-сервера только с сервисным ключом в метаданных {@code x-service-token} */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ServiceTokenInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> SERVICE_TOKEN = Metadata.Key.of(
+            IntrospectionClientAuthenticator.HEADER.toLowerCase(Locale.ROOT), Metadata.ASCII_STRING_MARSHALLER);
+
+    private final IntrospectionClientAuthenticator authenticator;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!authenticator.isAuthorized(headers.get(SERVICE_TOKEN))) {
+            log.warn("gRPC call {} without valid service token", call.getMethodDescriptor().getFullMethodName());
+            call.close(Status.UNAUTHENTICATED.withDescription("Service token required"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+        return next.startCall(call, headers);
+    }
+}
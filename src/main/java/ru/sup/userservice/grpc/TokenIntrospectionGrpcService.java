@@ -0,0 +1,44 @@
+package ru.sup.userservice.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.dto.response.TokenIntrospectionResponse;
+import ru.sup.userservice.service.TokenIntrospectionService;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenIntrospectionGrpcService extends TokenIntrospectionServiceGrpc.TokenIntrospectionServiceImplBase {
+
+    private final TokenIntrospectionService introspectionService;
+
+    @Override
+    public void introspectTokens(IntrospectTokensRequest request,
+                                 StreamObserver<IntrospectTokensResponse> responseObserver) {
+        List<TokenIntrospectionResponse> results;
+        try {
+            results = introspectionService.introspect(request.getTokensList());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        IntrospectTokensResponse.Builder response = IntrospectTokensResponse.newBuilder();
+        for (TokenIntrospectionResponse result : results) {
+            TokenStatus.Builder status = TokenStatus.newBuilder().setActive(result.isActive());
+            if (result.isActive()) {
+                status.setUserId(result.getUserId())
+                        .setUsername(result.getUsername())
+                        .setExpiresAtUnixMs(result.getExpiresAt());
+            }
+            response.addStatuses(status);
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+}
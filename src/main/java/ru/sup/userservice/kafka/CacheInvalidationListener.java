@@ -0,0 +1,84 @@
+package ru.sup.userservice.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.dto.event.FriendRequestEvent;
+import ru.sup.userservice.repository.FriendshipRepository;
+import ru.sup.userservice.service.FriendshipCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Превращает события {@code user-events} и {@code friendship-events} в точечные вытеснения кэшей.
+ * <p>
+ * Каждая реплика читает все партиции сама, без группы консьюмеров, поэтому изменение,
+ * сделанное на одной реплике, сбрасывает кэши на всех — локальный (L1) кэш можно держать
+ * без короткого TTL.
+ * Вытеснения пачки собираются без повторов и касаются только L1 этой реплики: Redis и
+ * рассылку уже выполнил узел, где произошло изменение.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationListener {
+
+    private final FriendshipCache friendshipCache;
+    private final FriendshipRepository friendshipRepository;
+    private final EventSerializer eventSerializer;
+
+    @KafkaListener(
+            id = "cache-invalidation",
+            idIsGroup = false,
+            topicPartitions = {
+                    @TopicPartition(topic = UserEventProducer.TOPIC,
+                            partitions = "#{@cacheInvalidationPartitions.partitions('" + UserEventProducer.TOPIC + "')}"),
+                    @TopicPartition(topic = FriendshipEventProducer.TOPIC,
+                            partitions = "#{@cacheInvalidationPartitions.partitions('" + FriendshipEventProducer.TOPIC + "')}")
+            },
+            containerFactory = "cacheInvalidationListenerContainerFactory"
+    )
+    public void onEvents(List<ConsumerRecord<String, byte[]>> records) {
+        FriendshipCache.Keys evictions = new FriendshipCache.Keys();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                collect(record, evictions);
+            } catch (Exception e) {
+                // Битое сообщение не должно останавливать партицию
+                log.warn("Skipping event {}-{}@{} for cache invalidation: {}",
+                        record.topic(), record.partition(), record.offset(), e.toString());
+            }
+        }
+        friendshipCache.evictLocal(evictions);
+        log.debug("Cache invalidation: {} event(s), {} eviction(s)", records.size(), evictions.size());
+    }
+
+    private void collect(ConsumerRecord<String, byte[]> record, FriendshipCache.Keys evictions) throws Exception {
+        if (UserEventProducer.TOPIC.equals(record.topic())) {
+            // Имя и аватар попадают в списки друзей; выдачу поиска сбрасывают поколения префиксов
+            if ("user.updated".equals(header(record, OutboxRelay.EVENT_TYPE_HEADER))) {
+                Long userId = Long.valueOf(record.key());
+                for (Long friendId : friendshipRepository.findAcceptedFriendIds(userId)) {
+                    evictions.friendsList(friendId);
+                }
+            }
+            return;
+        }
+
+        FriendRequestEvent event = eventSerializer.deserializeFriendRequest(
+                record.value(), header(record, OutboxRelay.CONTENT_TYPE_HEADER));
+        evictions.pair(event.senderId(), event.recipientId());
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
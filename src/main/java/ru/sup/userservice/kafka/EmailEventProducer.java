@@ -1,48 +1,36 @@
 package ru.sup.userservice.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import ru.sup.userservice.dto.EmailCode;
-
-import java.util.concurrent.TimeUnit;
+import ru.sup.userservice.repository.OutboxEventRepository;
 
 @Service
 public class EmailEventProducer {
 
     private static final Logger log = LoggerFactory.getLogger(EmailEventProducer.class);
     private static final String TOPIC = "email-auth-codes";
+    private static final String EVENT_TYPE = "email.send_code";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventSerializer eventSerializer;
 
-    public EmailEventProducer(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+    public EmailEventProducer(OutboxEventRepository outboxEventRepository, EventSerializer eventSerializer) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventSerializer = eventSerializer;
     }
 
     // === Методы отправки ===
     public void sendEmailCode(Long userID, String email, String code, String type) {
         EmailCode event = new EmailCode(userID, email, code, type);
-        sendEvent(event);
+        sendEvent(userID, event);
     }
 
-    private void sendEvent(Object event) {
-        try {
-            String payload = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(TOPIC, "email.send_code", payload)
-                    .get(5, TimeUnit.SECONDS); // Синхронно — ждём подтверждения
-
-            log.info("Kafka event sent: key={}, topic={}, payload={}", "email.send_code", TOPIC, payload);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize event: {}", event, e);
-            throw new RuntimeException("Serialization failed", e);
-        } catch (Exception e) {
-            log.error("Failed to send Kafka event: {}", event, e);
-            throw new RuntimeException("Kafka send failed", e);
-        }
+    private void sendEvent(Long userId, Object event) {
+        // В транзакции вызывающего, если она есть; в Kafka отправит OutboxRelay
+        outboxEventRepository.save(eventSerializer.toOutboxEvent(TOPIC, String.valueOf(userId), EVENT_TYPE, event));
+
+        log.info("Kafka event queued: type={}, key={}, topic={}", EVENT_TYPE, userId, TOPIC);
     }
-}
\ No newline at end of file
+}
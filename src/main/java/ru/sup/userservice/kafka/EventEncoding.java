@@ -0,0 +1,17 @@
+package ru.sup.userservice.kafka;
+
+/** Формат payload события; уходит в заголовок {@code content-type} вместе с версией схемы */
+public enum EventEncoding {
+    JSON("application/json"),
+    PROTOBUF("application/x-protobuf");
+
+    private final String contentType;
+
+    EventEncoding(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+}
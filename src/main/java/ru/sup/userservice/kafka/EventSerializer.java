@@ -0,0 +1,132 @@
+package ru.sup.userservice.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.dto.EmailCode;
+import ru.sup.userservice.dto.event.FriendRequestEvent;
+import ru.sup.userservice.dto.event.FriendshipStatusChangedEvent;
+import ru.sup.userservice.dto.event.UserCreatedEvent;
+import ru.sup.userservice.dto.event.UserUpdatedEvent;
+import ru.sup.userservice.entity.OutboxEvent;
+import ru.sup.userservice.kafka.proto.EmailCodeRequested;
+import ru.sup.userservice.kafka.proto.FriendRequest;
+import ru.sup.userservice.kafka.proto.FriendRequestAction;
+import ru.sup.userservice.kafka.proto.FriendshipStatusChanged;
+import ru.sup.userservice.kafka.proto.UserCreated;
+import ru.sup.userservice.kafka.proto.UserUpdated;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Сериализация событий Kafka сразу в байты.
+ * <p>
+ * Формат задаётся {@code events.encoding}: json (по умолчанию, как раньше) или protobuf
+ * по схеме {@code events.proto}. Формат и версия схемы уходят в заголовки сообщения,
+ * поэтому на время миграции консьюмеры могут читать оба варианта.
+ */
+@Component
+public class EventSerializer {
+
+    /** Текущая версия схемы событий (JSON-полей и events.proto) */
+    public static final int SCHEMA_VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+    private final EventEncoding encoding;
+
+    public EventSerializer(ObjectMapper objectMapper,
+                           @Value("${events.encoding:json}") EventEncoding encoding) {
+        this.objectMapper = objectMapper;
+        this.encoding = encoding;
+    }
+
+    public EventEncoding encoding() {
+        return encoding;
+    }
+
+    public byte[] serialize(Object event) {
+        if (encoding == EventEncoding.PROTOBUF) {
+            return toProto(event).toByteArray();
+        }
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Serialization failed: " + event.getClass().getSimpleName(), e);
+        }
+    }
+
+    /** Строка outbox с payload в текущем формате */
+    public OutboxEvent toOutboxEvent(String topic, String messageKey, String eventType, Object event) {
+        return new OutboxEvent(topic, messageKey, eventType,
+                serialize(event), encoding.contentType(), SCHEMA_VERSION);
+    }
+
+    /**
+     * Разбор события дружбы по заголовку {@code content-type}: на время миграции читаются оба формата,
+     * сообщения без заголовка — JSON.
+     */
+    public FriendRequestEvent deserializeFriendRequest(byte[] payload, String contentType) throws IOException {
+        if (EventEncoding.PROTOBUF.contentType().equals(contentType)) {
+            FriendRequest proto = FriendRequest.parseFrom(payload);
+            return new FriendRequestEvent(
+                    proto.getRecipientId(),
+                    proto.getSenderId(),
+                    ru.sup.userservice.data.FriendRequestAction.valueOf(proto.getAction().name()),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(proto.getTimestampMs()), ZoneId.systemDefault()));
+        }
+        return objectMapper.readValue(payload, FriendRequestEvent.class);
+    }
+
+    static Message toProto(Object event) {
+        return switch (event) {
+            case UserCreatedEvent e -> UserCreated.newBuilder()
+                    .setUserId(e.userId())
+                    .setUsername(nullToEmpty(e.username()))
+                    .setTimestampMs(e.timestamp())
+                    .build();
+            case UserUpdatedEvent e -> UserUpdated.newBuilder()
+                    .setUserId(e.userId())
+                    .setField(nullToEmpty(e.field()))
+                    .setOldValue(nullToEmpty(e.oldValue()))
+                    .setNewValue(nullToEmpty(e.newValue()))
+                    .setTimestampMs(e.timestamp())
+                    .build();
+            case FriendRequestEvent e -> FriendRequest.newBuilder()
+                    .setRecipientId(e.recipientId())
+                    .setSenderId(e.senderId())
+                    .setAction(FriendRequestAction.valueOf(e.action().name()))
+                    .setTimestampMs(epochMillis(e.timestamp()))
+                    .build();
+            case FriendshipStatusChangedEvent e -> FriendshipStatusChanged.newBuilder()
+                    .setRequesterId(e.requesterId())
+                    .setAddresseeId(e.addresseeId())
+                    .setOldStatus(nullToEmpty(e.oldStatus()))
+                    .setNewStatus(nullToEmpty(e.newStatus()))
+                    .setTimestampMs(epochMillis(e.timestamp()))
+                    .build();
+            case EmailCode e -> EmailCodeRequested.newBuilder()
+                    .setUserId(e.userID())
+                    .setEmail(nullToEmpty(e.email()))
+                    .setCode(nullToEmpty(e.code()))
+                    .setType(nullToEmpty(e.type()))
+                    .setTimestampMs(e.timestamp())
+                    .build();
+            default -> throw new IllegalArgumentException(
+                    "No protobuf schema for " + event.getClass().getSimpleName());
+        };
+    }
+
+    // LocalDateTime в событиях — локальное время сервера, как и в JSON
+    private static long epochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
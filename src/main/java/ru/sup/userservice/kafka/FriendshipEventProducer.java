@@ -1,28 +1,25 @@
 package ru.sup.userservice.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import ru.sup.userservice.data.FriendRequestAction;
 import ru.sup.userservice.dto.event.FriendRequestEvent;
+import ru.sup.userservice.repository.OutboxEventRepository;
 
 import java.time.LocalDateTime;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 public class FriendshipEventProducer {
 
-    private static final String TOPIC = "friendship-events";
+    static final String TOPIC = "friendship-events";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventSerializer eventSerializer;
 
-    public FriendshipEventProducer(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+    public FriendshipEventProducer(OutboxEventRepository outboxEventRepository, EventSerializer eventSerializer) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventSerializer = eventSerializer;
     }
 
     // === Методы отправки событий ===
@@ -107,20 +104,12 @@ public class FriendshipEventProducer {
 
     // === Внутренний метод отправки ===
 
-    private void sendEvent(String routingKey, Object event) {
-        try {
-            String payload = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(TOPIC, routingKey, payload)
-                    .get(5, TimeUnit.SECONDS); // Синхронно — ждём подтверждения
-
-            log.info("Kafka event sent: key={}, topic={}, payload={}", routingKey, TOPIC, payload);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize friendship event: {}", event, e);
-            throw new RuntimeException("Serialization failed", e);
-        } catch (Exception e) {
-            log.error("Failed to send Kafka friendship event: {}", event, e);
-            // Не прерываем основной поток — событие не критично
-            // throw new RuntimeException("Kafka send failed", e);
-        }
+    /** Ключ сообщения — id получателя события: у него меняется список друзей/заявок */
+    private void sendEvent(String eventType, FriendRequestEvent event) {
+        String key = String.valueOf(event.recipientId());
+        // Запись в outbox в транзакции FriendshipService; в Kafka отправит OutboxRelay
+        outboxEventRepository.save(eventSerializer.toOutboxEvent(TOPIC, key, eventType, event));
+
+        log.info("Kafka event queued: type={}, key={}, topic={}, event={}", eventType, key, TOPIC, event);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,289 @@
+package ru.sup.userservice.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sup.userservice.config.OutboxProperties;
+import ru.sup.userservice.entity.OutboxEvent;
+import ru.sup.userservice.repository.OutboxEventRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Переносит события из outbox_event в Kafka.
+ * <p>
+ * Пачка блокируется в БД, все события отправляются асинхронно; колбэк завершения собирает
+ * подтверждённые id и метрики по топику, после чего опубликованные строки отмечаются одним UPDATE.
+ * Неподтверждённые остаются в outbox и уходят в следующем запуске — доставка at-least-once.
+ * Событие, которое Kafka отклоняет не временной ошибкой (слишком большое, нет прав и т.п.),
+ * после {@code maxAttempts} отказов откладывается и не блокирует relay бесконечными повторами.
+ * Пока Kafka недоступна, relay делает паузы, а outbox играет роль локального журнала:
+ * запросы пользователей не падают и события не теряются.
+ * <p>
+ * Пачку публикует одна реплика (advisory-блокировка на транзакцию), поэтому события уходят
+ * в порядке id. Порядок внутри ключа при этом не строгий: событие, не подтверждённое вовремя
+ * или отклонённое, уйдёт повторно уже после более поздних событий того же пользователя.
+ * Консьюмеры должны выдерживать повторы и такие перестановки.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    /** Заголовок с типом события (user.created, friendship.request.sent, ...) */
+    public static final String EVENT_TYPE_HEADER = "event-type";
+    /** Формат payload: application/json или application/x-protobuf */
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    /** Версия схемы события, см. {@link EventSerializer#SCHEMA_VERSION} */
+    public static final String SCHEMA_VERSION_HEADER = "schema-version";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long backoffUntilNanos = System.nanoTime();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       OutboxProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("outbox.relay.consecutive.failures", consecutiveFailures, AtomicInteger::get)
+                .description("Пачки подряд без единого подтверждения Kafka (relay в паузе, пока > 0)")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval:PT1S}")
+    public void relay() {
+        if (System.nanoTime() - backoffUntilNanos < 0) {
+            return;
+        }
+        int batchSize = properties.getBatchSize();
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            // Каждая пачка — отдельная транзакция: строки заблокированы только на время отправки
+            BatchResult result = transactionTemplate.execute(status -> publishBatch(batchSize));
+            if (result == null) {
+                break;
+            }
+            if (result.brokerUnavailable()) {
+                backOff();
+                break;
+            }
+            recovered();
+            if (result.published() < batchSize) {
+                break;
+            }
+        }
+        outboxEventRepository.deletePublishedBatch(
+                Instant.now().minus(properties.getRetention()), batchSize);
+    }
+
+    /**
+     * Kafka не подтвердила ни одного события пачки — пауза с экспоненциальным ростом до
+     * {@code maxBackoff}. События копятся в outbox и после восстановления уходят в порядке id.
+     */
+    private void backOff() {
+        int failures = consecutiveFailures.incrementAndGet();
+        long delayNanos = properties.getPollInterval().toNanos() << Math.min(failures - 1, 16);
+        delayNanos = Math.min(delayNanos, properties.getMaxBackoff().toNanos());
+        backoffUntilNanos = System.nanoTime() + delayNanos;
+        if (failures == 1) {
+            log.warn("Kafka unavailable, outbox relay backing off; events stay in outbox_event");
+        } else {
+            log.debug("Outbox relay still backing off ({} failed batches in a row)", failures);
+        }
+    }
+
+    private void recovered() {
+        int failures = consecutiveFailures.getAndSet(0);
+        if (failures > 0) {
+            log.info("Kafka available again after {} failed batch(es), draining outbox", failures);
+        }
+    }
+
+    /** Результат одной пачки */
+    record BatchResult(int locked, int published) {
+        boolean brokerUnavailable() {
+            return locked > 0 && published == 0;
+        }
+    }
+
+    BatchResult publishBatch(int batchSize) {
+        if (!outboxEventRepository.tryLockRelay()) {
+            // Пачку уже публикует другая реплика
+            return new BatchResult(0, 0);
+        }
+        List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return new BatchResult(0, 0);
+        }
+
+        Set<Long> acknowledged = ConcurrentHashMap.newKeySet();
+        Set<Long> rejected = ConcurrentHashMap.newKeySet();
+        Map<String, Integer> perTopic = new HashMap<>();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[events.size()];
+        RuntimeException sendError = null;
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            perTopic.merge(event.getTopic(), 1, Integer::sum);
+            long startNanos = System.nanoTime();
+            CompletableFuture<?> sent;
+            boolean attempted = sendError == null;
+            if (!attempted) {
+                // max.block.ms действует на каждую отправку: после первой синхронной ошибки
+                // остаток пачки не отправляем, чтобы не держать блокировку строк и соединение
+                sent = CompletableFuture.failedFuture(sendError);
+            } else {
+                try {
+                    sent = kafkaTemplate.send(toRecord(event));
+                } catch (RuntimeException e) {
+                    sendError = e;
+                    sent = CompletableFuture.failedFuture(e);
+                }
+            }
+            futures[i] = sent.whenComplete((result, ex) -> {
+                if (ex == null) {
+                    acknowledged.add(event.getId());
+                    sendLatency(event.getTopic()).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                } else {
+                    if (attempted && !isRetriable(ex)) {
+                        rejected.add(event.getId());
+                    }
+                    counter("outbox.events.failed", event.getTopic()).increment();
+                    log.warn("Outbox event {} not published: type={}, key={}, topic={}: {}",
+                            event.getId(), event.getEventType(), event.getMessageKey(), event.getTopic(), ex.toString());
+                }
+            });
+        }
+        perTopic.forEach((topic, count) -> batchSize(topic).record(count));
+
+        awaitAcks(futures);
+
+        // Снимок подтверждений: колбэки, пришедшие после таймаута, в этот UPDATE не попадут
+        List<Long> ids = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (acknowledged.contains(event.getId())) {
+                ids.add(event.getId());
+                counter("outbox.events.published", event.getTopic()).increment();
+            }
+        }
+        if (!ids.isEmpty()) {
+            outboxEventRepository.markPublished(ids, Instant.now());
+            log.debug("Outbox relay published {} event(s)", ids.size());
+        }
+        recordRejections(events, rejected);
+        return new BatchResult(events.size(), ids.size());
+    }
+
+    /** Отказы Kafka увеличивают attempts; события с исчерпанными попытками откладываются */
+    private void recordRejections(List<OutboxEvent> events, Set<Long> rejected) {
+        if (rejected.isEmpty()) {
+            return;
+        }
+        List<Long> failedIds = new ArrayList<>();
+        List<Long> parkedIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (!rejected.contains(event.getId())) {
+                continue;
+            }
+            failedIds.add(event.getId());
+            if (event.getAttempts() + 1 >= properties.getMaxAttempts()) {
+                parkedIds.add(event.getId());
+                counter("outbox.events.parked", event.getTopic()).increment();
+                log.error("Outbox event {} parked after {} rejected attempt(s): type={}, key={}, topic={}",
+                        event.getId(), event.getAttempts() + 1, event.getEventType(),
+                        event.getMessageKey(), event.getTopic());
+            }
+        }
+        outboxEventRepository.incrementAttempts(failedIds);
+        if (!parkedIds.isEmpty()) {
+            outboxEventRepository.park(parkedIds, Instant.now());
+        }
+    }
+
+    /** Временная ошибка (таймаут, нет лидера партиции) — не отказ самого события */
+    private static boolean isRetriable(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Ошибки отдельных отправок уже учтены в колбэках; здесь только ограничение по времени */
+    private void awaitAcks(CompletableFuture<?>[] futures) {
+        try {
+            CompletableFuture.allOf(futures).get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+            // хотя бы одна отправка неудачна — строка останется в outbox
+        } catch (TimeoutException e) {
+            log.warn("Outbox batch not fully acknowledged within {}", properties.getSendTimeout());
+        }
+    }
+
+    private Counter counter(String name, String topic) {
+        return Counter.builder(name)
+                .tag("topic", topic)
+                .register(meterRegistry);
+    }
+
+    private Timer sendLatency(String topic) {
+        return Timer.builder("outbox.send.latency")
+                .tag("topic", topic)
+                .description("Время от отправки события до подтверждения брокером")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary batchSize(String topic) {
+        return DistributionSummary.builder("outbox.batch.size")
+                .tag("topic", topic)
+                .description("Событий топика в одной пачке relay")
+                .register(meterRegistry);
+    }
+
+    /** Ключ — id пользователя: события одного пользователя в одной партиции, нагрузка распределена по партициям */
+    static ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record =
+                new ProducerRecord<>(event.getTopic(), event.getMessageKey(), event.getPayload());
+        record.headers()
+                .add(EVENT_TYPE_HEADER, event.getEventType().getBytes(StandardCharsets.UTF_8))
+                .add(CONTENT_TYPE_HEADER, event.getContentType().getBytes(StandardCharsets.UTF_8))
+                .add(SCHEMA_VERSION_HEADER,
+                        Integer.toString(event.getSchemaVersion()).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.sup.userservice.kafka;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.util.List;
+
+/**
+ * Номера партиций топика для ручного назначения в {@code @TopicPartition}.
+ * <p>
+ * Список читается один раз при старте; партиции, добавленные позже, реплика увидит после перезапуска.
+ */
+@RequiredArgsConstructor
+public class PartitionFinder {
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+
+    public String[] partitions(String topic) {
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer()) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic);
+            if (partitions == null || partitions.isEmpty()) {
+                // Топика ещё нет — первой появится партиция 0
+                return new String[]{"0"};
+            }
+            return partitions.stream()
+                    .map(info -> String.valueOf(info.partition()))
+                    .toArray(String[]::new);
+        }
+    }
+}
@@ -1,53 +1,41 @@
 package ru.sup.userservice.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import ru.sup.userservice.dto.event.UserCreatedEvent;
 import ru.sup.userservice.dto.event.UserUpdatedEvent;
-
-import java.util.concurrent.TimeUnit;
+import ru.sup.userservice.repository.OutboxEventRepository;
 
 @Slf4j
 @Service
 public class UserEventProducer {
 
-    private static final String TOPIC = "user-events";
+    static final String TOPIC = "user-events";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventSerializer eventSerializer;
 
-    public UserEventProducer(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+    public UserEventProducer(OutboxEventRepository outboxEventRepository, EventSerializer eventSerializer) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventSerializer = eventSerializer;
     }
 
     // === Методы отправки ===
     public void sendUserCreated(Long userId, String username) {
         UserCreatedEvent event = new UserCreatedEvent(userId, username);
-        sendEvent("user.created", event);
+        sendEvent("user.created", userId, event);
     }
 
     public void sendUserUpdated(Long userId, String field, String oldValue, String newValue) {
         UserUpdatedEvent event = new UserUpdatedEvent(userId, field, oldValue, newValue);
-        sendEvent("user.updated", event);
+        sendEvent("user.updated", userId, event);
     }
 
-    private void sendEvent(String routingKey, Object event) {
-        try {
-            String payload = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(TOPIC, routingKey, payload)
-                    .get(5, TimeUnit.SECONDS); // Синхронно — ждём подтверждения
-
-            log.info("Kafka event sent: key={}, topic={}, payload={}", routingKey, TOPIC, payload);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize event: {}", event, e);
-            throw new RuntimeException("Serialization failed", e);
-        } catch (Exception e) {
-            log.error("Failed to send Kafka event: {}", event, e);
-            throw new RuntimeException("Kafka send failed", e);
-        }
+    /** Ключ сообщения — id пользователя, тип события — в заголовке */
+    private void sendEvent(String eventType, Long userId, Object event) {
+        // В транзакции вызывающего, если она есть; в Kafka отправит OutboxRelay
+        outboxEventRepository.save(eventSerializer.toOutboxEvent(TOPIC, String.valueOf(userId), eventType, event));
+
+        log.info("Kafka event queued: type={}, key={}, topic={}, event={}", eventType, userId, TOPIC, event);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package ru.sup.userservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.sup.userservice.entity.OutboxEvent;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Захватить право публикации до конца транзакции: пачки отправляет только одна реплика,
+     * иначе события одного пользователя разошлись бы по разным relay и потеряли порядок id.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('outbox_event_relay'))", nativeQuery = true)
+    boolean tryLockRelay();
+
+    /**
+     * Следующая пачка неопубликованных событий в порядке записи.
+     * Строки блокируются до конца транзакции relay; SKIP LOCKED не даёт ждать строк,
+     * которые держит транзакция приложения или очистка.
+     */
+    @Query(value = """
+        SELECT * FROM outbox_event
+        WHERE published_at IS NULL AND parked_at IS NULL
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+    /** Отметить пачку опубликованной одним UPDATE */
+    @Modifying
+    @Query("update OutboxEvent e set e.publishedAt = :publishedAt where e.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+    /** Учесть отклонённую Kafka отправку */
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1 where e.id in :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+
+    /** Отложить события с исчерпанными попытками; из outbox они не удаляются */
+    @Modifying
+    @Query("update OutboxEvent e set e.parkedAt = :parkedAt where e.id in :ids")
+    int park(@Param("ids") Collection<Long> ids, @Param("parkedAt") Instant parkedAt);
+
+    /** Удалить не больше {@code limit} опубликованных событий старше {@code before} */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE FROM outbox_event
+        WHERE id IN (
+            SELECT id FROM outbox_event
+            WHERE published_at < :before
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        """, nativeQuery = true)
+    int deletePublishedBatch(@Param("before") Instant before, @Param("limit") int limit);
+}
@@ -4,18 +4,53 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.sup.userservice.entity.RefreshToken;
-import ru.sup.userservice.entity.User;
+import ru.sup.userservice.security.jwt.TokenDigest;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
 
-    Optional<RefreshToken> findByUserAndRevokedFalse(User user);
+    /** Владелец подгружается тем же запросом: для refresh нужны его id и username */
+    @Query("select r from RefreshToken r join fetch r.user where r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") byte[] tokenHash);
 
+    /** Поиск по исходному значению токена через уникальный индекс token_hash */
+    default Optional<RefreshToken> findByToken(String token) {
+        return findByTokenHash(TokenDigest.sha256(token));
+    }
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.tokenHash = :tokenHash")
+    void revokeByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    default void revokeByToken(String token) {
+        revokeByTokenHash(TokenDigest.sha256(token));
+    }
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.user.id = :userId and r.revoked = false")
+    void revokeAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * Удалить не больше {@code limit} отозванных или просроченных токенов.
+     * SKIP LOCKED — не ждём строки, занятые логином/refresh или соседним экземпляром.
+     */
+    @Transactional
     @Modifying
-    @Query("update RefreshToken r set r.revoked = true where r.user = :user")
-    void revokeAllByUser(@Param("user") User user);
+    @Query(value = """
+        DELETE FROM refresh_token
+        WHERE id IN (
+            SELECT id FROM refresh_token
+            WHERE revoked = true OR expiry_date < :now
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        """, nativeQuery = true)
+    int deleteExpiredOrRevokedBatch(@Param("now") Instant now, @Param("limit") int limit);
 
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.sup.userservice.dto.UserDto;
+import ru.sup.userservice.dto.response.UserProfileResponse;
 import ru.sup.userservice.entity.User;
 
 import java.util.List;
@@ -55,6 +56,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
         """)
     Optional<UserDto> findUserDtoById(@Param("id") Long id);
 
+    /**
+     * Получить профиль пользователя по ID
+     */
+    @Query("""
+        SELECT new ru.sup.userservice.dto.response.UserProfileResponse(
+            u.id, u.username, u.email, u.phone, u.emailVerification, u.avatarURL)
+        FROM User u 
+        WHERE u.id = :id
+        """)
+    Optional<UserProfileResponse> findProfileById(@Param("id") Long id);
+
     /**
      * Поиск пользователей по началу username (для поиска друзей)
      */
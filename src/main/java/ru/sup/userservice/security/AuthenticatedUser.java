@@ -0,0 +1,30 @@
+package ru.sup.userservice.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal, собранный из подписанных claims access-токена (sub, userId).
+ * Позволяет аутентифицировать запрос без обращения к таблице users.
+ */
+public record AuthenticatedUser(
+        Long userId,
+        String username,
+        Collection<? extends GrantedAuthority> authorities
+) implements AuthenticatedPrincipal {
+
+    public static final List<GrantedAuthority> DEFAULT_AUTHORITIES = AuthorityUtils.createAuthorityList("USER");
+
+    public AuthenticatedUser(Long userId, String username) {
+        this(userId, username, DEFAULT_AUTHORITIES);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.sup.userservice.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Параметр контроллера, в который подставляется {@link AuthenticatedUser} текущего запроса.
+ * userId берётся из JWT, без повторного поиска пользователя по username.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
@@ -0,0 +1,56 @@
+package ru.sup.userservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import ru.sup.userservice.entity.User;
+import ru.sup.userservice.service.UserService;
+
+/**
+ * Подставляет {@link AuthenticatedUser} в параметры, помеченные {@link CurrentUser}.
+ * <p>
+ * Для JWT-аутентификации principal уже содержит userId. Для прочих principal
+ * (например, {@code @WithMockUser} или form-login) id один раз ищется по username.
+ */
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final ObjectProvider<UserService> userService;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && AuthenticatedUser.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public AuthenticatedUser resolveArgument(MethodParameter parameter,
+                                             ModelAndViewContainer mavContainer,
+                                             NativeWebRequest webRequest,
+                                             WebDataBinderFactory binderFactory) {
+        return resolve(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    AuthenticatedUser resolve(Authentication authentication) {
+        if (authentication == null || authentication.getName() == null
+                || "anonymousUser".equalsIgnoreCase(authentication.getName())) {
+            throw new UsernameNotFoundException("User is not authenticated");
+        }
+
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal;
+        }
+
+        Long userId = userService.getObject().findByUsername(authentication.getName())
+                .map(User::getId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return new AuthenticatedUser(userId, authentication.getName(), authentication.getAuthorities());
+    }
+}
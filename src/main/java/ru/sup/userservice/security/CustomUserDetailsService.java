@@ -3,28 +3,68 @@ package ru.sup.userservice.security;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.sup.userservice.entity.User;
 import ru.sup.userservice.repository.UserRepository;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UnknownUsernameCache unknownUsernames;
 
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User u = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        if (unknownUsernames.isUnknown(username)) {
+            throw new UnknownUsernameException();
+        }
+        User u = userRepository.findByUsername(username).orElse(null);
+        if (u == null) {
+            unknownUsernames.markUnknown(username);
+            throw new UnknownUsernameException();
+        }
         return org.springframework.security.core.userdetails.User
                 .withUsername(u.getUsername())
                 .password(u.getPassword())
                 .accountExpired(false).accountLocked(false).credentialsExpired(false).disabled(false)
                 .build();
     }
+
+    /** Сохранение пересчитанного хэша после успешного логина (устаревшие параметры BCrypt) */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User u = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        u.setPassword(newPassword);
+        userRepository.save(u);
+        log.info("Password hash upgraded for user {}", u.getUsername());
+        return org.springframework.security.core.userdetails.User
+                .withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
+    /**
+     * Промах поиска — штатная ситуация (опечатка, удалённый пользователь, перебор имён),
+     * стек вызовов не нужен и не собирается.
+     */
+    private static final class UnknownUsernameException extends UsernameNotFoundException {
+
+        UnknownUsernameException() {
+            super("User not found");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
 }
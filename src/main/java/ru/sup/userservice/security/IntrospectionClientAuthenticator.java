@@ -0,0 +1,50 @@
+package ru.sup.userservice.security;
+
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.config.IntrospectionProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Проверка сервисного ключа вызывающего интроспекцию.
+ * <p>
+ * Сравниваются SHA-256 ключей за постоянное время, без раннего выхода по списку.
+ */
+@Component
+public class IntrospectionClientAuthenticator {
+
+    /** HTTP-заголовок; в gRPC — метаданные с тем же именем в нижнем регистре */
+    public static final String HEADER = "X-Service-Token";
+
+    private final List<byte[]> secretDigests;
+
+    public IntrospectionClientAuthenticator(IntrospectionProperties properties) {
+        this.secretDigests = properties.getClientSecrets().stream()
+                .filter(secret -> secret != null && !secret.isBlank())
+                .map(IntrospectionClientAuthenticator::sha256)
+                .toList();
+    }
+
+    public boolean isAuthorized(String credential) {
+        if (credential == null || credential.isEmpty()) {
+            return false;
+        }
+        byte[] presented = sha256(credential);
+        boolean authorized = false;
+        for (byte[] secret : secretDigests) {
+            authorized |= MessageDigest.isEqual(secret, presented);
+        }
+        return authorized;
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
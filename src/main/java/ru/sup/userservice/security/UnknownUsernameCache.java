@@ -0,0 +1,94 @@
+package ru.sup.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Негативный кэш имён, которых нет в БД: повторные логины и токены удалённых пользователей
+ * не ходят в {@code users} в течение {@code ttl}.
+ * <p>
+ * Регистрация и переименование вызывают {@link #invalidate(String)} — сразу и ещё раз после коммита,
+ * чтобы параллельный промах до коммита не вернул имя в кэш. Кэш локален для узла,
+ * поэтому на других узлах новое имя может считаться отсутствующим не дольше {@code ttl}.
+ */
+@Component
+public class UnknownUsernameCache implements MeterBinder {
+
+    private final Cache<String, Boolean> unknown;
+    private final boolean enabled;
+    private final LongAdder hits = new LongAdder();
+
+    public UnknownUsernameCache(
+            @Value("${security.unknown-username-cache.ttl:10s}") Duration ttl,
+            @Value("${security.unknown-username-cache.max-size:10000}") int maxSize
+    ) {
+        this.enabled = ttl.isPositive();
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(enabled ? ttl : Duration.ZERO)
+                .build();
+    }
+
+    /** Имя недавно не нашлось в БД */
+    public boolean isUnknown(String username) {
+        if (!enabled || username == null) {
+            return false;
+        }
+        boolean cached = unknown.getIfPresent(username) != null;
+        if (cached) {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    /** Запомнить промах поиска по имени */
+    public void markUnknown(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        unknown.put(username, Boolean.TRUE);
+    }
+
+    /** Имя появилось в БД (регистрация, переименование) */
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        unknown.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    unknown.invalidate(username);
+                }
+            });
+        }
+    }
+
+    public long size() {
+        unknown.cleanUp();
+        return unknown.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("user.lookup.negative.cache.hits", hits, LongAdder::sum)
+                .description("Поиски по имени, отклонённые без запроса в БД")
+                .register(registry);
+        Gauge.builder("user.lookup.negative.cache.size", this, UnknownUsernameCache::size)
+                .description("Количество закэшированных отсутствующих имён")
+                .register(registry);
+    }
+}
@@ -0,0 +1,167 @@
+package ru.sup.userservice.security.jwt;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.config.AccessTokenDenylistProperties;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Denylist access-токенов по принципу «выпущены до отметки времени пользователя».
+ * <p>
+ * В Redis — sorted set: member = userId, score = epoch-секунда отзыва.
+ * Проверка в фильтре сначала идёт в локальный bloom-фильтр: для пользователей без отзыва
+ * (обычный случай) ответ без сетевого запроса. Только при попадании в фильтр читается ZSCORE.
+ * Отзывы с других узлов становятся видны после ближайшей синхронизации.
+ */
+@Slf4j
+@Component
+public class AccessTokenDenylist implements MeterBinder {
+
+    static final String KEY = "user-service:access-revocations";
+
+    private final StringRedisTemplate redisTemplate;
+    private final AccessTokenDenylistProperties properties;
+    private final long accessTokenExpirationMs;
+
+    private volatile LongBloomFilter filter;
+    private volatile double syncedUpToScore = Double.NEGATIVE_INFINITY;
+    private volatile long lastRebuildMs;
+
+    private final LongAdder bloomNegative = new LongAdder();
+    private final LongAdder revoked = new LongAdder();
+    private final LongAdder falsePositive = new LongAdder();
+
+    public AccessTokenDenylist(StringRedisTemplate redisTemplate,
+                               AccessTokenDenylistProperties properties,
+                               @Value("${jwt.access-expiration-ms}") long accessTokenExpirationMs) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.accessTokenExpirationMs = accessTokenExpirationMs;
+        this.filter = newFilter();
+    }
+
+    /** Сделать недействительными все access-токены пользователя, выпущенные до текущей секунды */
+    public void revokeAllForUser(Long userId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long nowSec = System.currentTimeMillis() / 1000;
+        // Локально — сразу, без ожидания синхронизации
+        filter.put(userId);
+        try {
+            redisTemplate.opsForZSet().add(KEY, userId.toString(), nowSec);
+        } catch (DataAccessException e) {
+            log.error("Failed to record access token revocation for user {}", userId, e);
+        }
+    }
+
+    /**
+     * Токен отозван, если выпущен строго раньше отметки пользователя.
+     * iat в JWT хранится с точностью до секунды, поэтому токены, выпущенные в ту же секунду, что и отзыв, остаются валидны.
+     */
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        if (!properties.isEnabled() || userId == null) {
+            return false;
+        }
+        if (!filter.mightContain(userId)) {
+            bloomNegative.increment();
+            return false;
+        }
+
+        Double revokedBefore;
+        try {
+            revokedBefore = redisTemplate.opsForZSet().score(KEY, userId.toString());
+        } catch (DataAccessException e) {
+            log.warn("Access token denylist unavailable, skipping check for user {}", userId);
+            return false;
+        }
+
+        long issuedAtSec = issuedAt == null ? 0 : issuedAt.getTime() / 1000;
+        if (revokedBefore != null && issuedAtSec < revokedBefore) {
+            revoked.increment();
+            return true;
+        }
+        falsePositive.increment();
+        return false;
+    }
+
+    /** Инкрементальная догрузка новых отзывов; периодически — полная пересборка фильтра */
+    @Scheduled(fixedDelayString = "${jwt.denylist.sync-interval:PT5S}")
+    public void sync() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            if (now - lastRebuildMs >= properties.getRebuildInterval().toMillis()) {
+                rebuild(now);
+            } else {
+                loadSince(filter, syncedUpToScore);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Access token denylist sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void rebuild(long now) {
+        // Токены, выпущенные раньше (now - TTL access), уже истекли сами
+        double horizon = (double) (now - accessTokenExpirationMs) / 1000;
+        redisTemplate.opsForZSet().removeRangeByScore(KEY, Double.NEGATIVE_INFINITY, horizon);
+
+        LongBloomFilter rebuilt = newFilter();
+        syncedUpToScore = Double.NEGATIVE_INFINITY;
+        loadSince(rebuilt, horizon);
+        filter = rebuilt;
+        lastRebuildMs = now;
+    }
+
+    private void loadSince(LongBloomFilter target, double fromScore) {
+        Set<ZSetOperations.TypedTuple<String>> entries =
+                redisTemplate.opsForZSet().rangeByScoreWithScores(KEY, fromScore, Double.POSITIVE_INFINITY);
+        if (entries == null) {
+            return;
+        }
+        double maxScore = syncedUpToScore;
+        for (ZSetOperations.TypedTuple<String> entry : entries) {
+            if (entry.getValue() == null || entry.getScore() == null) {
+                continue;
+            }
+            target.put(Long.parseLong(entry.getValue()));
+            maxScore = Math.max(maxScore, entry.getScore());
+        }
+        // Граница включительная: отзывы в ту же секунду перечитываются, put идемпотентен
+        syncedUpToScore = maxScore;
+    }
+
+    private LongBloomFilter newFilter() {
+        return LongBloomFilter.create(properties.getExpectedRevocations(), properties.getFalsePositiveRate());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("jwt.denylist.checks", bloomNegative, LongAdder::sum)
+                .tag("result", "bloom_negative")
+                .description("Проверки, отсечённые локальным bloom-фильтром")
+                .register(registry);
+        FunctionCounter.builder("jwt.denylist.checks", revoked, LongAdder::sum)
+                .tag("result", "revoked")
+                .description("Отклонённые отозванные access-токены")
+                .register(registry);
+        FunctionCounter.builder("jwt.denylist.checks", falsePositive, LongAdder::sum)
+                .tag("result", "false_positive")
+                .description("Попадания в bloom-фильтр без действующего отзыва")
+                .register(registry);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.sup.userservice.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Кэш уже проверенных claims, ключ — SHA-256 от токена.
+ * <p>
+ * Caffeine, ограниченный по размеру; запись живёт до exp токена.
+ */
+@Component
+public class JwtClaimsCache implements MeterBinder {
+
+    private final Cache<String, Claims> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public JwtClaimsCache(@Value("${jwt.claims-cache.max-size:10000}") int maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+    }
+
+    /**
+     * Вернуть claims из кэша или разобрать токен через {@code loader}.
+     * Исключения загрузчика (невалидная подпись, просроченный токен) не кэшируются.
+     */
+    public Claims get(String token, Function<String, Claims> loader) {
+        String key = digest(token);
+        Claims cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        Claims claims = loader.apply(token);
+        Date expiration = claims.getExpiration();
+        if (expiration != null && expiration.getTime() > System.currentTimeMillis()) {
+            cache.put(key, claims);
+        }
+        return claims;
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("jwt.claims.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Разборы JWT, обслуженные из кэша")
+                .register(registry);
+        FunctionCounter.builder("jwt.claims.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Разборы JWT с проверкой подписи")
+                .register(registry);
+        Gauge.builder("jwt.claims.cache.size", this, JwtClaimsCache::size)
+                .description("Количество закэшированных claims")
+                .register(registry);
+    }
+
+    private static String digest(String token) {
+        return Base64.getEncoder().withoutPadding().encodeToString(TokenDigest.sha256(token));
+    }
+
+    /** Запись истекает вместе с токеном; чтение срок не продлевает */
+    private static final class UntilTokenExpires implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package ru.sup.userservice.security.jwt;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.config.JwtSigningProperties;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Набор ключей JWT: активный ключ подписи и ключи проверки по kid.
+ * Все ключи разбираются один раз при старте; проверка — поиск ключа в карте по kid из заголовка.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    private final SigningKey signingKey;
+    private final Key legacyKey;
+    private final boolean acceptLegacy;
+    private final Map<String, Key> verificationKeys;
+    private final List<Map<String, Object>> publicJwks;
+
+    public JwtKeyRing(@Value("${jwt.secret}") String secret, JwtSigningProperties properties) {
+        this.legacyKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.acceptLegacy = properties.isAcceptLegacy();
+
+        Map<String, Key> verification = new HashMap<>();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        SigningKey active = new SigningKey(null, legacyKey, Jwts.SIG.HS256);
+
+        for (JwtSigningProperties.Key config : properties.getKeys()) {
+            String kid = config.getKid();
+            if (kid == null || kid.isBlank() || verification.containsKey(kid)) {
+                throw new IllegalStateException("JWT signing key must have a unique kid: " + kid);
+            }
+            Algorithm algorithm = Algorithm.of(config.getAlgorithm());
+            Key verifyKey;
+            Key signKey = null;
+            if (algorithm == Algorithm.HS256) {
+                verifyKey = Keys.hmacShaKeyFor(required(config.getSecret(), kid, "secret")
+                        .getBytes(StandardCharsets.UTF_8));
+                signKey = verifyKey;
+            } else {
+                PublicKey publicKey = algorithm.publicKey(required(config.getPublicKey(), kid, "public-key"));
+                verifyKey = publicKey;
+                if (config.getPrivateKey() != null && !config.getPrivateKey().isBlank()) {
+                    signKey = algorithm.privateKey(config.getPrivateKey());
+                }
+                jwks.add(algorithm.toJwk(kid, publicKey));
+            }
+            verification.put(kid, verifyKey);
+
+            if (kid.equals(properties.getActiveKid())) {
+                if (signKey == null) {
+                    throw new IllegalStateException("Active JWT key '" + kid + "' has no private key");
+                }
+                active = new SigningKey(kid, signKey, algorithm.signature);
+            }
+        }
+        if (properties.getActiveKid() != null && !properties.getActiveKid().isBlank() && active.kid() == null) {
+            throw new IllegalStateException("Active JWT key '" + properties.getActiveKid() + "' is not configured");
+        }
+        if (!acceptLegacy && active.kid() == null) {
+            // Иначе новые токены подписывались бы ключом, который сами не проходят проверку
+            throw new IllegalStateException("jwt.signing.accept-legacy=false requires jwt.signing.active-kid");
+        }
+
+        this.signingKey = active;
+        this.verificationKeys = Map.copyOf(verification);
+        this.publicJwks = Collections.unmodifiableList(jwks);
+        log.info("JWT keys initialized: active kid={}, verification kids={}, legacy accepted={}",
+                active.kid() == null ? "<jwt.secret>" : active.kid(), verification.keySet(), acceptLegacy);
+    }
+
+    /** Подписать токен активным ключом; kid в заголовке, если ключ не legacy */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public JwtBuilder sign(JwtBuilder builder) {
+        if (signingKey.kid() != null) {
+            builder = builder.header().keyId(signingKey.kid()).and();
+        }
+        return builder.signWith(signingKey.key(), (SecureDigestAlgorithm) signingKey.algorithm());
+    }
+
+    /** Выбор ключа проверки по kid: без kid — ключ из jwt.secret, если он ещё принимается */
+    public Locator<Key> keyLocator() {
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                String kid = header.getKeyId();
+                if (kid == null) {
+                    if (!acceptLegacy) {
+                        throw new InvalidKeyException("JWT without kid is no longer accepted");
+                    }
+                    return legacyKey;
+                }
+                Key key = verificationKeys.get(kid);
+                if (key == null) {
+                    throw new InvalidKeyException("Unknown JWT kid: " + kid);
+                }
+                return key;
+            }
+        };
+    }
+
+    /** Публичные ключи (ES256/EdDSA) в формате JWK для /.well-known/jwks.json */
+    public List<Map<String, Object>> publicJwks() {
+        return publicJwks;
+    }
+
+    private static String required(String value, String kid, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("JWT key '" + kid + "' requires " + field);
+        }
+        return value;
+    }
+
+    private record SigningKey(String kid, Key key, SecureDigestAlgorithm<?, ?> algorithm) {
+    }
+
+    private enum Algorithm {
+        HS256(Jwts.SIG.HS256, null),
+        ES256(Jwts.SIG.ES256, "EC"),
+        EdDSA(Jwts.SIG.EdDSA, "Ed25519");
+
+        private final SecureDigestAlgorithm<?, ?> signature;
+        private final String keyFactory;
+
+        Algorithm(SecureDigestAlgorithm<?, ?> signature, String keyFactory) {
+            this.signature = signature;
+            this.keyFactory = keyFactory;
+        }
+
+        static Algorithm of(String name) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.name().equalsIgnoreCase(name)) {
+                    return algorithm;
+                }
+            }
+            throw new IllegalStateException("Unsupported JWT algorithm: " + name);
+        }
+
+        PublicKey publicKey(String base64) {
+            try {
+                return KeyFactory.getInstance(keyFactory)
+                        .generatePublic(new X509EncodedKeySpec(Base64.getMimeDecoder().decode(base64)));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid " + name() + " public key", e);
+            }
+        }
+
+        PrivateKey privateKey(String base64) {
+            try {
+                return KeyFactory.getInstance(keyFactory)
+                        .generatePrivate(new PKCS8EncodedKeySpec(Base64.getMimeDecoder().decode(base64)));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid " + name() + " private key", e);
+            }
+        }
+
+        Map<String, Object> toJwk(String kid, PublicKey publicKey) {
+            Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            if (this == ES256) {
+                ECPublicKey ec = (ECPublicKey) publicKey;
+                jwk.put("kty", "EC");
+                jwk.put("crv", "P-256");
+                jwk.put("x", b64.encodeToString(unsigned(ec.getW().getAffineX(), 32)));
+                jwk.put("y", b64.encodeToString(unsigned(ec.getW().getAffineY(), 32)));
+            } else {
+                // X.509 SubjectPublicKeyInfo для Ed25519: 12 байт заголовка + 32 байта ключа
+                byte[] encoded = publicKey.getEncoded();
+                jwk.put("kty", "OKP");
+                jwk.put("crv", "Ed25519");
+                jwk.put("x", b64.encodeToString(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+            }
+            jwk.put("kid", kid);
+            jwk.put("alg", name());
+            jwk.put("use", "sig");
+            return jwk;
+        }
+
+        private static byte[] unsigned(BigInteger value, int length) {
+            byte[] bytes = value.toByteArray();
+            if (bytes.length == length) {
+                return bytes;
+            }
+            byte[] result = new byte[length];
+            int copy = Math.min(bytes.length, length);
+            System.arraycopy(bytes, bytes.length - copy, result, length - copy, copy);
+            return result;
+        }
+    }
+}
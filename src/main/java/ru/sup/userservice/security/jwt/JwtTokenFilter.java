@@ -1,5 +1,6 @@
 package ru.sup.userservice.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,19 +12,28 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
+import ru.sup.userservice.config.JwtAuthProperties;
+import ru.sup.userservice.security.AuthenticatedUser;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtTokenFilter extends OncePerRequestFilter {
 
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final JwtAuthProperties authProperties;
+    private final AccessTokenDenylist accessTokenDenylist;
 
 
     @Override
@@ -33,39 +43,67 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         final String header = request.getHeader("Authorization");
-        String username = null;
-        String token = null;
 
-        if (header != null && header.startsWith("Bearer ")) {
-            token = header.substring(7);
-            try {
-                username = jwtUtil.extractUsername(token);
-            } catch (Exception e) {
-                log.warn("Failed to extract username from JWT [{}]: {}", request.getRequestURI(), e.getMessage());
-            }
-        } else {
+        if (header == null || !header.startsWith("Bearer ")) {
             log.debug("No Bearer token in request to {}", request.getRequestURI());
+            filterChain.doFilter(request, response);
+            return;
         }
 
-        // Проверка пользователя
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token, userDetails)) {
-                UsernamePasswordAuthenticationToken auth =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                token,
-                                userDetails.getAuthorities()
-                        );
-                auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(auth);
-                log.debug("Authenticated user '{}' for {}", username, request.getRequestURI());
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Подпись и срок действия проверяются один раз
+            Optional<Claims> claims = jwtUtil.parseClaims(header.substring(7));
+            if (claims.isPresent()) {
+                authenticate(request, claims.get());
             } else {
-                log.warn("JWT validation failed for user '{}' on {}", username, request.getRequestURI());
+                log.warn("JWT validation failed on {}", request.getRequestURI());
             }
         }
 
         filterChain.doFilter(request, response);
     }
-}
 
+    private void authenticate(HttpServletRequest request, Claims claims) {
+        String username = claims.getSubject();
+        Long userId = claims.get("userId", Long.class);
+        if (username == null || userId == null) {
+            log.warn("JWT without sub/userId on {}", request.getRequestURI());
+            return;
+        }
+        if (accessTokenDenylist.isRevoked(userId, claims.getIssuedAt())) {
+            log.warn("Revoked JWT for user '{}' on {}", username, request.getRequestURI());
+            return;
+        }
+
+        AuthenticatedUser principal;
+        if (authProperties.isStateless() && !requiresRevocationCheck(request)) {
+            principal = new AuthenticatedUser(userId, username);
+        } else {
+            // Чувствительные к отзыву эндпоинты: пользователь должен существовать в БД
+            UserDetails userDetails;
+            try {
+                userDetails = userDetailsService.loadUserByUsername(username);
+            } catch (UsernameNotFoundException e) {
+                log.warn("JWT user '{}' no longer exists [{}]", username, request.getRequestURI());
+                return;
+            }
+            principal = new AuthenticatedUser(userId, userDetails.getUsername(), AuthenticatedUser.DEFAULT_AUTHORITIES);
+        }
+
+        UsernamePasswordAuthenticationToken auth =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+        auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        log.debug("Authenticated user '{}' for {}", username, request.getRequestURI());
+    }
+
+    private boolean requiresRevocationCheck(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : authProperties.getRevocationCheckPaths()) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,67 +1,65 @@
 package ru.sup.userservice.security.jwt;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
-import ru.sup.userservice.repository.UserRepository;
 
-import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 @Slf4j
 public class JwtUtil {
 
-    private final SecretKey key;
+    private final JwtKeyRing keyRing;
+    private final JwtParser parser;
     private final long accessTokenExpirationMs;
     private final long refreshTokenExpirationMs;
-    private final UserRepository userRepository;
+    private final JwtClaimsCache claimsCache;
 
     public JwtUtil(
-            @Value("${jwt.secret}") String secret,
+            JwtKeyRing keyRing,
             @Value("${jwt.access-expiration-ms}") long accessTokenExpirationMs,
             @Value("${jwt.refresh-expiration-ms}") long refreshTokenExpirationMs,
-            UserRepository userRepository
+            JwtClaimsCache claimsCache
     ) {
-        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.keyRing = keyRing;
+        // JwtParser потокобезопасен — собираем один раз, ключ проверки выбирается по kid
+        this.parser = Jwts.parser().keyLocator(keyRing.keyLocator()).build();
         this.accessTokenExpirationMs = accessTokenExpirationMs;
         this.refreshTokenExpirationMs = refreshTokenExpirationMs;
-        this.userRepository = userRepository;
+        this.claimsCache = claimsCache;
     }
 
-    /** Генерация Access-токена */
-    public String generateAccessToken(UserDetails userDetails) {
-        if (userRepository.findByUsername(userDetails.getUsername()).isPresent()){
-            return buildToken(
-                    userDetails.getUsername(),
-                    userRepository.findByUsername(userDetails.getUsername()).get().getId(),
-                    accessTokenExpirationMs);
-        } else return null;
+    /** Генерация Access-токена для уже загруженного пользователя (без обращения к БД) */
+    public String generateAccessToken(Long userId, String username) {
+        return buildToken(username, userId, accessTokenExpirationMs);
+    }
 
+    /** Генерация Refresh-токена для уже загруженного пользователя (без обращения к БД) */
+    public String generateRefreshToken(Long userId, String username) {
+        return buildToken(username, userId, refreshTokenExpirationMs);
     }
 
-    /** Генерация Refresh-токена */
-    public String generateRefreshToken(UserDetails userDetails) {
-        if (userRepository.findByUsername(userDetails.getUsername()).isPresent()) {
-            return buildToken(
-                    userDetails.getUsername(),
-                    userRepository.findByUsername(userDetails.getUsername()).get().getId(),
-                    refreshTokenExpirationMs);
-        } else return null;
+    /** Генерация пары access + refresh за один вызов */
+    public TokenPair generateTokenPair(Long userId, String username) {
+        return new TokenPair(
+                generateAccessToken(userId, username),
+                generateRefreshToken(userId, username));
     }
 
-    /** Вспомогательный метод */
+    /** Вспомогательный метод; случайный jti — токены одной секунды не совпадают побайтно */
     private String buildToken(String username, Long id, long expiration) {
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .claim("userId", id)
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(key, Jwts.SIG.HS256)
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + expiration));
+        return keyRing.sign(builder).compact();
     }
 
     /** Получение имени пользователя */
@@ -76,25 +74,30 @@ public class JwtUtil {
 
     /** Проверка токена */
     public boolean validateToken(String token, UserDetails userDetails) {
+        return parseClaims(token)
+                .map(claims -> userDetails.getUsername().equals(claims.getSubject()))
+                .orElse(false);
+    }
+
+    /**
+     * Однократный разбор токена: проверка подписи и срока действия.
+     * Пустой результат, если токен невалиден или просрочен.
+     */
+    public Optional<Claims> parseClaims(String token) {
         try {
-            final String username = extractUsername(token);
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+            Claims claims = extractAllClaims(token);
+            if (claims.getExpiration() == null || claims.getExpiration().before(new Date())) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            log.debug("JWT rejected: {}", e.getMessage());
+            return Optional.empty();
         }
     }
 
-    /** Проверка срока действия */
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
-    }
-
-    /** Разбор JWT и получение всех Claims */
+    /** Разбор JWT и получение всех Claims (с кэшем проверенных токенов) */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return claimsCache.get(token, t -> parser.parseSignedClaims(t).getPayload());
     }
 }
@@ -0,0 +1,26 @@
+package ru.sup.userservice.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 от строки токена. Используется как ключ вместо самого JWT
+ * (кэш claims, хранение refresh-токенов).
+ */
+public final class TokenDigest {
+
+    /** Размер дайджеста в байтах */
+    public static final int LENGTH = 32;
+
+    private TokenDigest() {
+    }
+
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package ru.sup.userservice.security.jwt;
+
+/** Пара токенов, выпущенная за один вызов {@link JwtUtil#generateTokenPair} */
+public record TokenPair(String accessToken, String refreshToken) {
+}
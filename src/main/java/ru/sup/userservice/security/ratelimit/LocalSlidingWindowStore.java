@@ -0,0 +1,91 @@
+package ru.sup.userservice.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Счётчики скользящего окна в памяти узла.
+ * <p>
+ * Caffeine, ограниченный {@code maxKeys}, поэтому поток запросов с разных IP не раздувает память;
+ * ключ, к которому не обращались два окна, удаляется — его счётчики уже ничего не весят.
+ */
+public class LocalSlidingWindowStore implements SlidingWindowStore {
+
+    private final Cache<String, Window> windows;
+
+    public LocalSlidingWindowStore(int maxKeys) {
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(new TwoWindowsIdle())
+                .build();
+    }
+
+    @Override
+    public long tryAcquire(String key, int limit, long windowMs, long nowMs) {
+        long index = nowMs / windowMs;
+        long elapsed = nowMs - index * windowMs;
+        long[] retryAfterMs = new long[1];
+        // compute атомарен по ключу — отдельные блокировки не нужны
+        windows.asMap().compute(key, (k, window) -> {
+            if (window == null) {
+                window = new Window(index, windowMs);
+            }
+            window.rollTo(index);
+            double estimate = (double) window.previous * (windowMs - elapsed) / windowMs + window.current;
+            if (estimate >= limit) {
+                retryAfterMs[0] = SlidingWindowStore.retryAfterMs(window.previous, window.current, limit, elapsed, windowMs);
+            } else {
+                window.current++;
+            }
+            return window;
+        });
+        return retryAfterMs[0];
+    }
+
+    public long size() {
+        windows.cleanUp();
+        return windows.estimatedSize();
+    }
+
+    private static final class Window {
+        final long windowMs;
+        long index;
+        long previous;
+        long current;
+
+        Window(long index, long windowMs) {
+            this.index = index;
+            this.windowMs = windowMs;
+        }
+
+        void rollTo(long newIndex) {
+            if (newIndex == index) {
+                return;
+            }
+            previous = newIndex == index + 1 ? current : 0;
+            current = 0;
+            index = newIndex;
+        }
+    }
+
+    /** Срок ключа — два его окна с последнего обращения */
+    private static final class TwoWindowsIdle implements Expiry<String, Window> {
+        @Override
+        public long expireAfterCreate(String key, Window window, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(2 * window.windowMs);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Window window, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, window, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Window window, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.sup.userservice.security.ratelimit;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** Эндпоинты с ограничением частоты; {@code tag} — префикс ключа счётчика и тег метрик */
+@Getter
+@RequiredArgsConstructor
+public enum RateLimitedAction {
+    LOGIN("login"),
+    REGISTER("register"),
+    VERIFY_EMAIL("verify-email");
+
+    private final String tag;
+}
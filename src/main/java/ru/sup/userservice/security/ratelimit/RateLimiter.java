@@ -0,0 +1,126 @@
+package ru.sup.userservice.security.ratelimit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.config.RateLimitProperties;
+import ru.sup.userservice.exception.RateLimitExceededException;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничение частоты login / register / verifyEmail по IP клиента и имени пользователя.
+ * <p>
+ * Вызывается первым действием эндпоинта — до запросов в БД и BCrypt,
+ * поэтому перебор паролей и поток регистраций отсекаются почти бесплатно.
+ */
+@Slf4j
+@Component
+public class RateLimiter implements MeterBinder {
+
+    private final RateLimitProperties properties;
+    private final LocalSlidingWindowStore localStore;
+    private final RedisSlidingWindowStore redisStore;
+
+    private final Map<RateLimitedAction, LongAdder> allowed = new EnumMap<>(RateLimitedAction.class);
+    private final Map<RateLimitedAction, LongAdder> rejected = new EnumMap<>(RateLimitedAction.class);
+
+    public RateLimiter(RateLimitProperties properties, StringRedisTemplate redisTemplate) {
+        this.properties = properties;
+        this.localStore = new LocalSlidingWindowStore(properties.getMaxKeys());
+        this.redisStore = properties.getMode() == RateLimitProperties.Mode.REDIS
+                ? new RedisSlidingWindowStore(redisTemplate)
+                : null;
+        for (RateLimitedAction action : RateLimitedAction.values()) {
+            allowed.put(action, new LongAdder());
+            rejected.put(action, new LongAdder());
+        }
+    }
+
+    /**
+     * Учесть запрос. При превышении лимита по IP, паре IP + имя или по имени —
+     * {@link RateLimitExceededException}.
+     * Пустой {@code clientIp} / {@code username} пропускает соответствующую проверку.
+     */
+    public void check(RateLimitedAction action, String clientIp, String username) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        RateLimitProperties.Limit limit = limitFor(action);
+        long windowMs = limit.getWindow().toMillis();
+        long now = System.currentTimeMillis();
+
+        boolean hasIp = clientIp != null && !clientIp.isBlank();
+        String user = username == null || username.isBlank() ? null : username.trim().toLowerCase(Locale.ROOT);
+
+        long retryAfterMs = 0;
+        if (hasIp) {
+            retryAfterMs = acquire(action.getTag() + ":ip:" + clientIp, limit.getPerIp(), windowMs, now);
+        }
+        if (retryAfterMs == 0 && hasIp && user != null) {
+            String key = action.getTag() + ":ip-user:" + clientIp + ":" + user;
+            retryAfterMs = acquire(key, limit.getPerIpUsername(), windowMs, now);
+        }
+        if (retryAfterMs == 0 && user != null) {
+            retryAfterMs = acquire(action.getTag() + ":user:" + user, limit.getPerUsername(), windowMs, now);
+        }
+
+        if (retryAfterMs > 0) {
+            rejected.get(action).increment();
+            throw new RateLimitExceededException(
+                    action.getTag() + " rate limit exceeded",
+                    (int) Math.max(1, (retryAfterMs + 999) / 1000));
+        }
+        allowed.get(action).increment();
+    }
+
+    private long acquire(String key, int limit, long windowMs, long now) {
+        if (limit <= 0) {
+            return 0;
+        }
+        if (redisStore != null) {
+            try {
+                return redisStore.tryAcquire(key, limit, windowMs, now);
+            } catch (DataAccessException e) {
+                log.warn("Rate limit store unavailable, using local counters: {}", e.getMessage());
+            }
+        }
+        return localStore.tryAcquire(key, limit, windowMs, now);
+    }
+
+    private RateLimitProperties.Limit limitFor(RateLimitedAction action) {
+        return switch (action) {
+            case LOGIN -> properties.getLogin();
+            case REGISTER -> properties.getRegister();
+            case VERIFY_EMAIL -> properties.getVerifyEmail();
+        };
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        for (RateLimitedAction action : RateLimitedAction.values()) {
+            FunctionCounter.builder("rate.limit.requests", allowed.get(action), LongAdder::sum)
+                    .tag("action", action.getTag())
+                    .tag("result", "allowed")
+                    .description("Запросы, прошедшие ограничение частоты")
+                    .register(registry);
+            FunctionCounter.builder("rate.limit.requests", rejected.get(action), LongAdder::sum)
+                    .tag("action", action.getTag())
+                    .tag("result", "rejected")
+                    .description("Запросы, отклонённые с 429")
+                    .register(registry);
+        }
+        Gauge.builder("rate.limit.keys", localStore, LocalSlidingWindowStore::size)
+                .description("Ключи (IP / имя) в локальных счётчиках")
+                .register(registry);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.sup.userservice.security.ratelimit;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Общие для всех узлов счётчики скользящего окна в Redis.
+ * <p>
+ * Ключ окна — {@code user-service:rate:{<key>}:<номер окна>} с TTL в два окна; проверка и инкремент
+ * выполняются одним Lua-скриптом, hash tag держит оба окна ключа в одном слоте кластера.
+ */
+class RedisSlidingWindowStore implements SlidingWindowStore {
+
+    static final String KEY_PREFIX = "user-service:rate:";
+
+    private static final String SCRIPT_TEXT = """
+            local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local previous = tonumber(redis.call('GET', KEYS[2]) or '0')
+            local limit = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local elapsed = tonumber(ARGV[3])
+            if previous * (window - elapsed) / window + current >= limit then
+              return {0, previous, current}
+            end
+            redis.call('INCR', KEYS[1])
+            redis.call('PEXPIRE', KEYS[1], window * 2)
+            return {1, previous, current}
+            """;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> SCRIPT =
+            (RedisScript<List<Long>>) (RedisScript) new DefaultRedisScript<>(SCRIPT_TEXT, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    RedisSlidingWindowStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public long tryAcquire(String key, int limit, long windowMs, long nowMs) {
+        long index = nowMs / windowMs;
+        long elapsed = nowMs - index * windowMs;
+        String base = KEY_PREFIX + "{" + key + "}:";
+        List<Long> result = redisTemplate.execute(SCRIPT,
+                List.of(base + index, base + (index - 1)),
+                String.valueOf(limit), String.valueOf(windowMs), String.valueOf(elapsed));
+        if (result == null || result.size() < 3 || result.get(0) == 1L) {
+            return 0;
+        }
+        return SlidingWindowStore.retryAfterMs(result.get(1), result.get(2), limit, elapsed, windowMs);
+    }
+}
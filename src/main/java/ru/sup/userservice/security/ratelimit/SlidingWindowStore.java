@@ -0,0 +1,25 @@
+package ru.sup.userservice.security.ratelimit;
+
+/**
+ * Счётчик скользящего окна: оценка = предыдущее окно × доля оставшегося времени + текущее окно.
+ */
+interface SlidingWindowStore {
+
+    /**
+     * Учесть запрос по ключу, если оценка за окно меньше {@code limit}.
+     *
+     * @return 0 — запрос разрешён, иначе через сколько миллисекунд повторить
+     */
+    long tryAcquire(String key, int limit, long windowMs, long nowMs);
+
+    /** Время до момента, когда оценка опустится ниже лимита (отклонённые запросы не учитываются) */
+    static long retryAfterMs(long previous, long current, int limit, long elapsedMs, long windowMs) {
+        if (current >= limit) {
+            // Текущее окно исчерпано: ждём его конца и затухания его веса в следующем окне
+            double fraction = 1.0 - (double) limit / current;
+            return windowMs - elapsedMs + Math.max(1, (long) Math.ceil(windowMs * fraction));
+        }
+        double fraction = 1.0 - (double) (limit - current) / previous;
+        return Math.max(1, (long) Math.ceil(windowMs * fraction) - elapsedMs);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.sup.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.sup.userservice.config.TwoLevelCacheManager;
+import ru.sup.userservice.data.FriendshipStatus;
+import ru.sup.userservice.repository.FriendshipRepository;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Кэши, построенные по дружбам: списки друзей, их количество и проверка «друзья ли».
+ * <p>
+ * Проверка симметрична и хранится под ключом пары {@code min_max}. Все кэши зависят только
+ * от принятых дружб, поэтому переход сбрасывает записи обоих пользователей лишь тогда,
+ * когда ACCEPTED был до или стал после. Вытеснения одного перехода идут одним конвейером Redis
+ * (при включённом near-кэше) — сразу и ещё раз после коммита, чтобы не осталось значения,
+ * прочитанного до коммита.
+ * <p>
+ * Общий Redis и рассылку репликам трогает только узел, где произошло изменение;
+ * консьюмер Kafka на каждой реплике сбрасывает лишь свой L1 ({@link #evictLocal}).
+ */
+@Component
+@RequiredArgsConstructor
+public class FriendshipCache {
+
+    public static final String FRIENDS_LIST = "userFriendsList";
+    public static final String FRIENDS_COUNT = "friendsCount";
+    public static final String FRIENDSHIP_CHECK = "friendshipCheck";
+
+    private final CacheManager cacheManager;
+    private final FriendshipRepository friendshipRepository;
+
+    /** Ключ проверки дружбы, не зависящий от порядка пользователей */
+    public static String pairKey(Long a, Long b) {
+        return a.compareTo(b) <= 0 ? a + "_" + b : b + "_" + a;
+    }
+
+    /**
+     * Связь между пользователями сменила статус ({@code null} — связи нет).
+     */
+    public void onTransition(Long a, Long b, FriendshipStatus from, FriendshipStatus to) {
+        if (from != FriendshipStatus.ACCEPTED && to != FriendshipStatus.ACCEPTED) {
+            return;
+        }
+        evictNowAndAfterCommit(new Keys().pair(a, b));
+    }
+
+    /**
+     * Имя или аватар пользователя попадают в списки друзей — сбросить списки всех его друзей.
+     */
+    public void onProfileChanged(Long userId) {
+        Keys keys = new Keys();
+        friendshipRepository.findAcceptedFriendIds(userId).forEach(keys::friendsList);
+        evictNowAndAfterCommit(keys);
+    }
+
+    private void evictNowAndAfterCommit(Keys keys) {
+        evict(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(keys);
+                }
+            });
+        }
+    }
+
+    public void evict(Keys keys) {
+        if (keys.byCache.isEmpty()) {
+            return;
+        }
+        if (cacheManager instanceof TwoLevelCacheManager twoLevel) {
+            twoLevel.evictAll(keys.byCache);
+            return;
+        }
+        evictEach(keys);
+    }
+
+    private void evictEach(Keys keys) {
+        keys.byCache.forEach((cacheName, cacheKeys) -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cacheKeys.forEach(cache::evict);
+            }
+        });
+    }
+
+    /**
+     * Сбросить записи только в памяти этой реплики. Redis уже очищен узлом-источником,
+     * поэтому без near-кэша поверх Redis делать нечего.
+     */
+    public void evictLocal(Keys keys) {
+        if (keys.byCache.isEmpty() || cacheManager instanceof RedisCacheManager) {
+            return;
+        }
+        if (cacheManager instanceof TwoLevelCacheManager twoLevel) {
+            twoLevel.evictAllLocal(keys.byCache);
+            return;
+        }
+        evictEach(keys);
+    }
+
+    /** Набор вытеснений без повторов */
+    public static final class Keys {
+        private final Map<String, Set<Object>> byCache = new LinkedHashMap<>();
+
+        /** Все записи, зависящие от связи пары */
+        public Keys pair(Long a, Long b) {
+            friendsList(a);
+            friendsList(b);
+            add(FRIENDS_COUNT, a);
+            add(FRIENDS_COUNT, b);
+            add(FRIENDSHIP_CHECK, pairKey(a, b));
+            return this;
+        }
+
+        public Keys friendsList(Long userId) {
+            add(FRIENDS_LIST, userId);
+            return this;
+        }
+
+        public int size() {
+            return byCache.values().stream().mapToInt(Set::size).sum();
+        }
+
+        private void add(String cacheName, Object key) {
+            byCache.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key);
+        }
+    }
+}
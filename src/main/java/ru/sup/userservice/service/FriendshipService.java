@@ -1,6 +1,5 @@
 package ru.sup.userservice.service;
 
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.PageImpl;
 import ru.sup.userservice.dto.FriendshipDto;
 import ru.sup.userservice.dto.FriendshipStatusDto;
@@ -15,7 +14,6 @@ import ru.sup.userservice.repository.FriendshipRepository;
 import ru.sup.userservice.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -36,6 +34,7 @@ public class FriendshipService {
     private final UserRepository userRepository;
     private final FriendshipEventProducer friendshipEventProducer;
     private final NotificationGrpcClient notificationGrpcClient;
+    private final FriendshipCache friendshipCache;
 
     /**
      * Отправить запрос в друзья
@@ -58,7 +57,7 @@ public class FriendshipService {
 
         friendshipEventProducer.sendFriendRequestSent(requesterId, addresseeId);
         notificationGrpcClient.notifyFriendRequestReceived(addresseeId, requesterId);
-        evictFriendCache(addresseeId);
+        friendshipCache.onTransition(requesterId, addresseeId, null, FriendshipStatus.PENDING);
 
         return FriendshipDto.from(saved);
     }
@@ -67,7 +66,6 @@ public class FriendshipService {
      * Принять запрос в друзья
      */
     @Transactional
-    @CacheEvict(value = "userFriends", key = "#p0")
     public FriendshipDto acceptFriendRequest(Long userId, Long friendId) {
         var friendship = friendshipRepository
                 .findByRequesterIdAndAddresseeId(friendId, userId)
@@ -82,8 +80,7 @@ public class FriendshipService {
 
         friendshipEventProducer.sendFriendRequestAccepted(friendId, userId);
         notificationGrpcClient.notifyFriendRequestAccepted(friendId, userId);
-        evictFriendCache(userId);
-        evictFriendCache(friendId);
+        friendshipCache.onTransition(userId, friendId, FriendshipStatus.PENDING, FriendshipStatus.ACCEPTED);
 
         return FriendshipDto.from(saved);
     }
@@ -92,7 +89,6 @@ public class FriendshipService {
      * Отклонить запрос в друзья
      */
     @Transactional
-    @CacheEvict(value = "userFriends", key = "#p0")
     public void rejectFriendRequest(Long userId, Long friendId) {
         var friendship = friendshipRepository
                 .findByRequesterIdAndAddresseeId(friendId, userId)
@@ -104,7 +100,7 @@ public class FriendshipService {
         friendshipRepository.save(friendship);
 
         log.info("Friend request rejected: {} -/-> {}", userId, friendId);
-        evictFriendCache(userId);
+        friendshipCache.onTransition(userId, friendId, FriendshipStatus.PENDING, FriendshipStatus.REJECTED);
 
         friendshipEventProducer.sendFriendRequestRejected(userId, friendId);
         // optional: notify requester of rejection
@@ -115,7 +111,6 @@ public class FriendshipService {
      * Отменить исходящий запрос
      */
     @Transactional
-    @CacheEvict(value = "userFriends", key = "#p1")
     public void cancelFriendRequest(Long requesterId, Long addresseeId) {
         var friendship = friendshipRepository
                 .findByRequesterIdAndAddresseeId(requesterId, addresseeId)
@@ -124,7 +119,7 @@ public class FriendshipService {
 
         friendshipRepository.delete(friendship);
         log.info("Friend request cancelled: {} -/-> {}", requesterId, addresseeId);
-        evictFriendCache(addresseeId);
+        friendshipCache.onTransition(requesterId, addresseeId, FriendshipStatus.PENDING, null);
 
         friendshipEventProducer.sendFriendRequestCancelled(requesterId, addresseeId);
     }
@@ -133,19 +128,13 @@ public class FriendshipService {
      * Удалить друга (разорвать связь)
      */
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "userFriends", key = "#p0"),
-            @CacheEvict(value = "userFriends", key = "#p1")
-    })
     public void removeFriend(Long userId, Long friendId) {
         var friendship = findActiveFriendship(userId, friendId)
                 .orElseThrow(() -> new NotFoundException("Friendship not found"));
 
         friendshipRepository.delete(friendship);
         log.info("Friendship removed: {} -/-> {}", userId, friendId);
-
-        evictFriendCache(userId);
-        evictFriendCache(friendId);
+        friendshipCache.onTransition(userId, friendId, FriendshipStatus.ACCEPTED, null);
 
         friendshipEventProducer.sendFriendRemoved(userId, friendId);
         friendshipEventProducer.sendFriendRemoved(friendId, userId);
@@ -155,12 +144,9 @@ public class FriendshipService {
      * Заблокировать пользователя (без удаления истории)
      */
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "userFriends", key = "#p0"),
-            @CacheEvict(value = "userFriends", key = "#p1")
-    })
     public void blockUser(Long userId, Long targetId) {
         var friendship = findAnyFriendship(userId, targetId);
+        var previousStatus = friendship == null ? null : friendship.getStatus();
 
         if (friendship == null) {
             friendship = Friendship.builder()
@@ -176,9 +162,7 @@ public class FriendshipService {
 
         friendshipRepository.save(friendship);
         log.info("User blocked: {} -X-> {}", userId, targetId);
-
-        evictFriendCache(userId);
-        evictFriendCache(targetId);
+        friendshipCache.onTransition(userId, targetId, previousStatus, FriendshipStatus.BLOCKED);
 
         friendshipEventProducer.sendUserBlocked(userId, targetId);
     }
@@ -192,8 +176,7 @@ public class FriendshipService {
         if (friendship != null && friendship.getStatus() == FriendshipStatus.BLOCKED) {
             friendshipRepository.delete(friendship);
             log.info("User unblocked: {} -/X-> {}", userId, targetId);
-            evictFriendCache(userId);
-            evictFriendCache(targetId);
+            friendshipCache.onTransition(userId, targetId, FriendshipStatus.BLOCKED, null);
         }
     }
 
@@ -213,7 +196,7 @@ public class FriendshipService {
         return new PageImpl<>(pageContent, pageable, allFriends.size());
     }
 
-    @Cacheable(value = "userFriendsList", key = "#p0", unless = "#result.isEmpty()")
+    @Cacheable(value = FriendshipCache.FRIENDS_LIST, key = "#p0", unless = "#result.isEmpty()")
     @Transactional(readOnly = true)
     public List<UserDto> getFriendsList(Long userId) {
         var friendIds = friendshipRepository.findAcceptedFriendIds(userId);
@@ -265,9 +248,10 @@ public class FriendshipService {
     }
 
     /**
-     * Являются ли пользователи друзьями
+     * Являются ли пользователи друзьями (одна запись кэша на пару в любом порядке)
      */
-    @Cacheable(value = "friendshipCheck", key = "#p0 + '_' + #p1")
+    @Cacheable(value = FriendshipCache.FRIENDSHIP_CHECK,
+            key = "T(ru.sup.userservice.service.FriendshipCache).pairKey(#p0, #p1)")
     @Transactional(readOnly = true)
     public boolean areFriends(Long user1, Long user2) {
         return friendshipRepository.areFriends(user1, user2);
@@ -276,7 +260,7 @@ public class FriendshipService {
     /**
      * Получить количество друзей
      */
-    @Cacheable(value = "friendsCount", key = "#p0")
+    @Cacheable(value = FriendshipCache.FRIENDS_COUNT, key = "#p0")
     @Transactional(readOnly = true)
     public long getFriendsCount(Long userId) {
         return friendshipRepository.countAcceptedFriends(userId);
@@ -318,9 +302,4 @@ public class FriendshipService {
     private Optional<Friendship> findActiveFriendship(Long user1, Long user2) {
         return friendshipRepository.findByUserPairAndStatusAccepted(user1, user2);
     }
-
-    private void evictFriendCache(Long userId) {
-        // Spring Cache автоматически очистит ключи при использовании @CacheEvict
-        // Дополнительно можно очистить паттерны, если используете кастомную логику
-    }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package ru.sup.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.entity.RefreshToken;
+import ru.sup.userservice.repository.RefreshTokenRepository;
+import ru.sup.userservice.repository.UserRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/** Refresh-токены в таблице refresh_token (хранилище по умолчанию) */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "refresh-token", name = "store", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public void save(Long userId, String username, String token, Instant expiryDate) {
+        RefreshToken refreshToken = RefreshToken.builder()
+                .token(token)
+                // Ссылка без SELECT: нужен только user_id
+                .user(userRepository.getReferenceById(userId))
+                .expiryDate(expiryDate)
+                .revoked(false)
+                .build();
+        refreshTokenRepository.save(refreshToken);
+    }
+
+    @Override
+    public Optional<StoredRefreshToken> findByToken(String token) {
+        return refreshTokenRepository.findByToken(token)
+                .map(rt -> new StoredRefreshToken(
+                        rt.getUser().getId(),
+                        rt.getUser().getUsername(),
+                        rt.getExpiryDate(),
+                        rt.isRevoked()));
+    }
+
+    @Override
+    public void revoke(String token) {
+        refreshTokenRepository.revokeByToken(token);
+    }
+
+    @Override
+    public void revokeAllByUser(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId);
+    }
+}
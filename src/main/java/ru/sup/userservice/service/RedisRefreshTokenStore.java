@@ -0,0 +1,109 @@
+package ru.sup.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.security.jwt.TokenDigest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Refresh-токены в Redis.
+ * <p>
+ * {@code user-service:refresh:<sha256>} → {@code userId:expiryMs:username} с TTL до истечения токена;
+ * {@code user-service:refresh:user:<userId>} → множество дайджестов токенов пользователя для «отозвать все».
+ * Отзыв — удаление ключа; просроченный токен удаляет сам Redis, поэтому после истечения
+ * refresh невозможен и нужен повторный логин.
+ * Токен и его индекс пишутся одним Lua-скриптом: токен вне множества не пропустит «отозвать все».
+ * Ключи токена и пользователя лежат в разных слотах — рассчитано на Redis без кластера.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "refresh-token", name = "store", havingValue = "redis")
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String TOKEN_PREFIX = "user-service:refresh:";
+    private static final String USER_PREFIX = "user-service:refresh:user:";
+
+    /** Множество живёт не меньше самого свежего токена */
+    private static final String SAVE_SCRIPT_TEXT = """
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            redis.call('SADD', KEYS[2], ARGV[3])
+            if redis.call('PTTL', KEYS[2]) < tonumber(ARGV[2]) then
+              redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            end
+            return 1
+            """;
+
+    private static final RedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(SAVE_SCRIPT_TEXT, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void save(Long userId, String username, String token, Instant expiryDate) {
+        Duration ttl = Duration.between(Instant.now(), expiryDate);
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        String digest = digest(token);
+
+        redisTemplate.execute(SAVE_SCRIPT,
+                List.of(TOKEN_PREFIX + digest, USER_PREFIX + userId),
+                userId + ":" + expiryDate.toEpochMilli() + ":" + username,
+                String.valueOf(ttl.toMillis()),
+                digest);
+    }
+
+    @Override
+    public Optional<StoredRefreshToken> findByToken(String token) {
+        String value = redisTemplate.opsForValue().get(TOKEN_PREFIX + digest(token));
+        if (value == null) {
+            return Optional.empty();
+        }
+        String[] parts = value.split(":", 3);
+        if (parts.length != 3) {
+            log.warn("Malformed refresh token entry in Redis");
+            return Optional.empty();
+        }
+        return Optional.of(new StoredRefreshToken(
+                Long.valueOf(parts[0]),
+                parts[2],
+                Instant.ofEpochMilli(Long.parseLong(parts[1])),
+                false));
+    }
+
+    @Override
+    public void revoke(String token) {
+        redisTemplate.delete(TOKEN_PREFIX + digest(token));
+    }
+
+    @Override
+    public void revokeAllByUser(Long userId) {
+        String userKey = USER_PREFIX + userId;
+        Set<String> digests = redisTemplate.opsForSet().members(userKey);
+
+        List<String> keys = new ArrayList<>();
+        if (digests != null) {
+            for (String digest : digests) {
+                keys.add(TOKEN_PREFIX + digest);
+            }
+        }
+        keys.add(userKey);
+        redisTemplate.delete(keys);
+    }
+
+    private static String digest(String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(TokenDigest.sha256(token));
+    }
+}
@@ -0,0 +1,73 @@
+package ru.sup.userservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.sup.userservice.config.RefreshTokenPurgeProperties;
+import ru.sup.userservice.repository.RefreshTokenRepository;
+
+import java.time.Instant;
+
+/**
+ * Периодически удаляет отозванные и просроченные refresh-токены,
+ * чтобы таблица и индекс idx_refresh_token_user не росли бесконечно.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "refresh-token.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshTokenPurgeJob {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenPurgeProperties properties;
+    private final Counter purged;
+
+    public RefreshTokenPurgeJob(RefreshTokenRepository refreshTokenRepository,
+                                RefreshTokenPurgeProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.properties = properties;
+        this.purged = Counter.builder("refresh.token.purged")
+                .description("Удалённые отозванные/просроченные refresh-токены")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${refresh-token.purge.interval:PT1H}",
+            initialDelayString = "${refresh-token.purge.interval:PT1H}")
+    public void purge() {
+        Instant now = Instant.now();
+        int batchSize = properties.getBatchSize();
+        long total = 0;
+
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            // Каждая пачка — отдельная короткая транзакция
+            int deleted = refreshTokenRepository.deleteExpiredOrRevokedBatch(now, batchSize);
+            total += deleted;
+            purged.increment(deleted);
+
+            if (deleted < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Refresh token purge removed {} rows", total);
+        }
+    }
+
+    private boolean pause() {
+        long pauseMs = properties.getPauseBetweenBatches().toMillis();
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
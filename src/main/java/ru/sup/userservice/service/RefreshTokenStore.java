@@ -0,0 +1,24 @@
+package ru.sup.userservice.service;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Хранилище выпущенных refresh-токенов.
+ * <p>
+ * По умолчанию — таблица refresh_token ({@link JpaRefreshTokenStore}),
+ * при {@code refresh-token.store=redis} — Redis с TTL ({@link RedisRefreshTokenStore}).
+ */
+public interface RefreshTokenStore {
+
+    /** Сохранить только что выпущенный токен */
+    void save(Long userId, String username, String token, Instant expiryDate);
+
+    Optional<StoredRefreshToken> findByToken(String token);
+
+    /** Отозвать один токен */
+    void revoke(String token);
+
+    /** Отозвать все активные токены пользователя */
+    void revokeAllByUser(Long userId);
+}
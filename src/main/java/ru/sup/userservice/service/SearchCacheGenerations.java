@@ -0,0 +1,136 @@
+package ru.sup.userservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Поколения ключей кэша {@code user-search} по префиксу запроса.
+ * <p>
+ * Ключ кэша содержит поколение своего префикса. Новое или изменённое имя увеличивает поколения
+ * всех своих префиксов (INCR в Redis, до {@link #MAX_PREFIX_LENGTH} символов) — старые записи
+ * больше не читаются и истекают по TTL, остальные запросы сохраняют попадания.
+ * Поколения кэшируются на узле не дольше {@code ttl}: за это время другие узлы увидят новое.
+ */
+@Slf4j
+@Component
+public class SearchCacheGenerations {
+
+    /** Запросы длиннее используют поколение своего префикса этой длины */
+    static final int MAX_PREFIX_LENGTH = 32;
+    private static final String KEY_PREFIX = "user-service:search-gen:";
+    /** Дольше TTL записей user-search (1 ч): счётчик не сбросится, пока живы записи его поколений */
+    private static final Duration GENERATION_TTL = Duration.ofHours(2);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, Long> local;
+    private final Counter bumps;
+
+    public SearchCacheGenerations(StringRedisTemplate redisTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${cache.near.ttl:10s}") Duration ttl,
+                                  @Value("${cache.near.max-size:10000}") long maxSize) {
+        this.redisTemplate = redisTemplate;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.bumps = Counter.builder("user.search.cache.generation.bumps")
+                .description("Увеличения поколений префиксов поиска (вместо очистки всего кэша)")
+                .register(meterRegistry);
+    }
+
+    /** Ключ записи кэша: нормализованный префикс, его поколение, страница и пользователь */
+    public String key(String prefix, int page, int size, String currentUsername) {
+        String normalized = normalize(prefix);
+        return normalized + ':' + generation(bucket(normalized)) + ':' + page + ':' + size + ':' + currentUsername;
+    }
+
+    /**
+     * Имена появились, изменились или исчезли: сбросить выдачу по всем их префиксам.
+     * Выполняется сразу и ещё раз после коммита — выдача, закэшированная до коммита, тоже устаревает.
+     */
+    public void invalidate(String... usernames) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String username : usernames) {
+            if (username == null) {
+                continue;
+            }
+            String normalized = normalize(username);
+            for (int length = 1; length <= Math.min(normalized.length(), MAX_PREFIX_LENGTH); length++) {
+                prefixes.add(normalized.substring(0, length));
+            }
+        }
+        if (prefixes.isEmpty()) {
+            return;
+        }
+        bump(prefixes);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(prefixes);
+                }
+            });
+        }
+    }
+
+    private void bump(Set<String> prefixes) {
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (String prefix : prefixes) {
+                    redis.incr(KEY_PREFIX + prefix);
+                    redis.expire(KEY_PREFIX + prefix, GENERATION_TTL.toSeconds());
+                }
+                return null;
+            });
+            bumps.increment(prefixes.size());
+        } catch (DataAccessException e) {
+            // Без Redis нет и самого кэша поиска
+            log.warn("Search cache generations not bumped: {}", e.getMessage());
+        }
+        local.invalidateAll(prefixes);
+    }
+
+    private long generation(String prefix) {
+        Long cached = local.getIfPresent(prefix);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + prefix);
+            long generation = value == null ? 0L : Long.parseLong(value);
+            local.put(prefix, generation);
+            return generation;
+        } catch (DataAccessException e) {
+            log.debug("Search cache generation unavailable: {}", e.getMessage());
+            return 0L;
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String bucket(String normalizedPrefix) {
+        return normalizedPrefix.length() > MAX_PREFIX_LENGTH
+                ? normalizedPrefix.substring(0, MAX_PREFIX_LENGTH)
+                : normalizedPrefix;
+    }
+}
@@ -0,0 +1,12 @@
+package ru.sup.userservice.service;
+
+import java.time.Instant;
+
+/** Сохранённый refresh-токен: владелец и срок действия, без самого значения токена */
+public record StoredRefreshToken(
+        Long userId,
+        String username,
+        Instant expiryDate,
+        boolean revoked
+) {
+}
@@ -0,0 +1,68 @@
+package ru.sup.userservice.service;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.sup.userservice.dto.response.TokenIntrospectionResponse;
+import ru.sup.userservice.security.jwt.AccessTokenDenylist;
+import ru.sup.userservice.security.jwt.JwtUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Пакетная проверка access-токенов для других сервисов (REST и gRPC).
+ * Те же проверки, что и в JwtTokenFilter: подпись, срок, denylist; без обращения к БД.
+ */
+@Slf4j
+@Service
+public class TokenIntrospectionService {
+
+    private final JwtUtil jwtUtil;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final int maxBatchSize;
+
+    public TokenIntrospectionService(JwtUtil jwtUtil,
+                                     AccessTokenDenylist accessTokenDenylist,
+                                     @Value("${jwt.introspection.max-batch-size:100}") int maxBatchSize) {
+        this.jwtUtil = jwtUtil;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /** Результаты в том же порядке, что и токены */
+    public List<TokenIntrospectionResponse> introspect(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            return List.of();
+        }
+        if (tokens.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Too many tokens: " + tokens.size() + " > " + maxBatchSize);
+        }
+
+        List<TokenIntrospectionResponse> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(introspect(token));
+        }
+        return results;
+    }
+
+    private TokenIntrospectionResponse introspect(String token) {
+        if (token == null || token.isBlank()) {
+            return TokenIntrospectionResponse.inactive();
+        }
+        Optional<Claims> parsed = jwtUtil.parseClaims(token);
+        if (parsed.isEmpty()) {
+            return TokenIntrospectionResponse.inactive();
+        }
+
+        Claims claims = parsed.get();
+        Long userId = claims.get("userId", Long.class);
+        if (userId == null || claims.getSubject() == null
+                || accessTokenDenylist.isRevoked(userId, claims.getIssuedAt())) {
+            return TokenIntrospectionResponse.inactive();
+        }
+        return new TokenIntrospectionResponse(true, userId, claims.getSubject(), claims.getExpiration().getTime());
+    }
+}
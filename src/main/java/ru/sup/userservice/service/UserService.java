@@ -4,14 +4,15 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import ru.sup.userservice.dto.*;
@@ -19,15 +20,18 @@ import ru.sup.userservice.dto.request.LoginRequest;
 import ru.sup.userservice.dto.request.RegisterRequest;
 import ru.sup.userservice.dto.response.AuthResponse;
 import ru.sup.userservice.dto.response.SearchUsersResponse;
-import ru.sup.userservice.entity.RefreshToken;
+import ru.sup.userservice.dto.response.UserProfileResponse;
 import ru.sup.userservice.entity.User;
 import ru.sup.userservice.entity.VerificationCode;
 import ru.sup.userservice.kafka.EmailEventProducer;
+import ru.sup.userservice.kafka.UserEventProducer;
 import ru.sup.userservice.repository.FriendshipRepository;
-import ru.sup.userservice.repository.RefreshTokenRepository;
 import ru.sup.userservice.repository.UserRepository;
 import ru.sup.userservice.repository.VerificationCodeRepository;
+import ru.sup.userservice.security.UnknownUsernameCache;
+import ru.sup.userservice.security.jwt.AccessTokenDenylist;
 import ru.sup.userservice.security.jwt.JwtUtil;
+import ru.sup.userservice.security.jwt.TokenPair;
 import ru.sup.userservice.util.EmailVerificationCodeUtil;
 
 import java.time.Instant;
@@ -44,107 +48,93 @@ public class UserService {
     private final AuthenticationManager authManager;
     private final UserRepository userRepository;
     private final FriendshipRepository friendshipRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final VerificationCodeRepository verificationCodeRepository;
     private final JwtUtil jwtUtil;
+    private final AccessTokenDenylist accessTokenDenylist;
     private final EmailEventProducer emailEventProducer;
+    private final UserEventProducer userEventProducer;
+    private final UnknownUsernameCache unknownUsernames;
+    private final SearchCacheGenerations searchCacheGenerations;
+    private final FriendshipCache friendshipCache;
 
     @Value("${jwt.refresh-expiration-ms}")
     private long refreshTokenExpirationMs;
-    private final String CACHE_NAME = "user-search";
 
     /** Регистрация нового пользователя */
+    @Transactional
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.findByUsername(request.getUsername()).isPresent()) {
             log.error("Пользователь с именем '{}' уже существует", request.getUsername());
             throw new IllegalArgumentException("Пользователь уже существует");
         }
 
-        try {
-            // Создаём нового пользователя
-            User user = new User();
-            user.setUsername(request.getUsername());
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
-            userRepository.save(user);
-
-            // Создаём UserDetails (для JWT)
-            UserDetails userDetails = buildUserDetails(user);
-
-            // Генерируем токены
-            String accessToken = jwtUtil.generateAccessToken(userDetails);
-            String refreshToken = jwtUtil.generateRefreshToken(userDetails);
-
-            // Сохраняем refresh-токен в БД
-            RefreshToken refreshTokenObj = RefreshToken.builder()
-                    .token(refreshToken)
-                    .user(user)
-                    .expiryDate(Instant.now().plusMillis(refreshTokenExpirationMs))
-                    .revoked(false)
-                    .build();
-
-            refreshTokenRepository.save(refreshTokenObj);
-
-            // Возвращаем только access-токен (refresh не отправляем клиенту)
-            return new AuthResponse(accessToken, refreshToken);
-
-        } catch (Exception e) {
-            log.error("Ошибка при регистрации пользователя", e);
-            throw new RuntimeException("Ошибка регистрации", e);
-        }
+        // Создаём нового пользователя
+        User user = new User();
+        user.setUsername(request.getUsername());
+        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        userRepository.save(user);
+        // Событие в outbox — в одной транзакции с пользователем
+        userEventProducer.sendUserCreated(user.getId(), user.getUsername());
+        unknownUsernames.invalidate(user.getUsername());
+        searchCacheGenerations.invalidate(user.getUsername());
+
+        // Генерируем токены по уже сохранённому пользователю
+        TokenPair tokens = jwtUtil.generateTokenPair(user.getId(), user.getUsername());
+        String accessToken = tokens.accessToken();
+        String refreshToken = tokens.refreshToken();
+
+        // Сохраняем refresh-токен в хранилище
+        refreshTokenStore.save(user.getId(), user.getUsername(), refreshToken,
+                Instant.now().plusMillis(refreshTokenExpirationMs));
+
+        // Возвращаем только access-токен (refresh не отправляем клиенту)
+        return new AuthResponse(accessToken, refreshToken);
     }
 
     /** Логин пользователя */
     public AuthResponse login(LoginRequest request) {
+        log.info("Trying to authenticate: {}", request.getUsername());
         try {
-            log.info("Trying to authenticate: {}", request.getUsername());
             authManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             request.getUsername(),
                             request.getPassword()
                     )
             );
+        } catch (AuthenticationException e) {
+            // Неверные учётные данные — штатный отказ, без стека в логе
+            log.info("Неудачный вход пользователя '{}'", request.getUsername());
+            throw e;
+        }
 
-            User user = userRepository.findByUsername(request.getUsername())
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-            UserDetails userDetails = buildUserDetails(user);
-
-            String accessToken = jwtUtil.generateAccessToken(userDetails);
+        // Пользователь удалён между проверкой пароля и поиском — тот же отказ во входе
+        User user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-            // Проверяем, есть ли актуальный refresh-токен
-            RefreshToken refreshToken = refreshTokenRepository
-                    .findByUserAndRevokedFalse(user)
-                    .orElseGet(() -> createAndSaveRefreshToken(user, userDetails));
+        String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getUsername());
 
-            // Если токен просрочен — создаём новый
-            if (refreshToken.getExpiryDate().isBefore(Instant.now())) {
-                refreshToken.setRevoked(true);
-                refreshTokenRepository.save(refreshToken);
-                refreshToken = createAndSaveRefreshToken(user, userDetails);
-            }
+        // В БД хранится только хэш refresh-токена, вернуть прежний нельзя — выпускаем
+        // отдельный токен на каждый вход; токены других устройств остаются действительны
+        String refreshToken = createAndSaveRefreshToken(user.getId(), user.getUsername());
 
-            return new AuthResponse(accessToken, refreshToken.getToken());
-
-        } catch (Exception e) {
-            log.error("Ошибка при логине пользователя", e);
-            throw new RuntimeException("Ошибка логина", e);
-        }
+        return new AuthResponse(accessToken, refreshToken);
     }
 
     @Transactional
     public AuthResponse update(User user, User newData) {
         log.info("Обновление пользователя: {}", user.getUsername());
 
-        // если пароль не закодирован — кодируем
-        if (newData.getPassword() != null && !newData.getPassword().startsWith("$2a$")) {
+        // пароль приходит только из запроса пользователя — кодируем всегда
+        if (newData.getPassword() != null) {
             log.info("Шифрование нового пароля для {}", user.getUsername());
             newData.setPassword(passwordEncoder.encode(newData.getPassword()));
         }
         String type = "update";
 
         // сохраняем изменения
+        String oldUsername = user.getUsername();
         if(newData.getUsername() != null){
-            evictAllSearchCaches();
             user.setUsername(newData.getUsername());
         }
         if(newData.getPassword() != null){
@@ -162,13 +152,23 @@ public class UserService {
         }
 
         userRepository.save(user);
+        if (newData.getUsername() != null) {
+            userEventProducer.sendUserUpdated(user.getId(), "username", oldUsername, user.getUsername());
+            friendshipCache.onProfileChanged(user.getId());
+            unknownUsernames.invalidate(user.getUsername());
+            // Выдача поиска меняется только для префиксов старого и нового имени
+            searchCacheGenerations.invalidate(oldUsername, user.getUsername());
+        }
         // инвалидируем старые refresh токены
-        refreshTokenRepository.revokeAllByUser(user);
+        refreshTokenStore.revokeAllByUser(user.getId());
+        // при смене логина или пароля — и уже выданные access токены
+        if (newData.getUsername() != null || newData.getPassword() != null) {
+            accessTokenDenylist.revokeAllForUser(user.getId());
+        }
 
         // создаём новые токены
-        UserDetails userDetails = buildUserDetails(user);
-        String accessToken = jwtUtil.generateAccessToken(userDetails);
-        RefreshToken refreshToken = createAndSaveRefreshToken(user, userDetails);
+        String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getUsername());
+        String refreshToken = createAndSaveRefreshToken(user.getId(), user.getUsername());
 
         if (newData.getEmail() != null) {
             log.info("Изменение email для пользователя: {}", user.getUsername());
@@ -187,23 +187,30 @@ public class UserService {
             emailEventProducer.sendEmailCode(user.getId(), user.getEmail(), code, type);
         }
 
-        return new AuthResponse(accessToken, refreshToken.getToken());
+        return new AuthResponse(accessToken, refreshToken);
     }
 
     @Transactional
     public void updateAvatarUrl(User user, String avatarUrl) {
+        String oldAvatarUrl = user.getAvatarURL();
         user.setAvatarURL(avatarUrl);
         userRepository.save(user);
-        evictAllSearchCaches();
+        userEventProducer.sendUserUpdated(user.getId(), "avatarURL", oldAvatarUrl, avatarUrl);
+        friendshipCache.onProfileChanged(user.getId());
+        searchCacheGenerations.invalidate(user.getUsername());
     }
 
     public void deleteUser(User user) {
         userRepository.delete(user);
+        // В Redis-хранилище нет каскада по FK — отзываем refresh-токены явно
+        refreshTokenStore.revokeAllByUser(user.getId());
+        accessTokenDenylist.revokeAllForUser(user.getId());
+        searchCacheGenerations.invalidate(user.getUsername());
     }
 
     @Cacheable(
             value = "user-search",
-            key = "#p0 + ':' + #p1 + ':' + #p2 + ':' + #p3",
+            key = "@searchCacheGenerations.key(#p0, #p1, #p2, #p3)",
             condition = "#currentUsername != null && #currentUsername != 'anonymousUser'"
     )
     public SearchUsersResponse searchUsersByUsernamePrefix(
@@ -258,22 +265,12 @@ public class UserService {
         );
     }
 
-    // Опционально: метод для очистки кэша (например, при обновлении пользователя)
-    @CacheEvict(value = CACHE_NAME, allEntries = true)
-    public void evictAllSearchCaches() {
-        log.info("All user search caches evicted");
-    }
-
-    /** Вспомогательный метод: создать и сохранить новый refresh-токен */
-    public RefreshToken createAndSaveRefreshToken(User user, UserDetails userDetails) {
-        String tokenValue = jwtUtil.generateRefreshToken(userDetails);
-        RefreshToken refreshToken = RefreshToken.builder()
-                .token(tokenValue)
-                .user(user)
-                .expiryDate(Instant.now().plusMillis(refreshTokenExpirationMs))
-                .revoked(false)
-                .build();
-        return refreshTokenRepository.save(refreshToken);
+    /** Вспомогательный метод: выпустить и сохранить новый refresh-токен, вернуть его значение */
+    public String createAndSaveRefreshToken(Long userId, String username) {
+        String tokenValue = jwtUtil.generateRefreshToken(userId, username);
+        refreshTokenStore.save(userId, username, tokenValue,
+                Instant.now().plusMillis(refreshTokenExpirationMs));
+        return tokenValue;
     }
 
     /** Построение UserDetails из User */
@@ -293,6 +290,16 @@ public class UserService {
         return userRepository.findUserDtoById(id);
     }
 
+    /** Полная сущность по id — только для операций, которые её изменяют */
+    public Optional<User> findById(Long id) {
+        return userRepository.findById(id);
+    }
+
+    /** Профиль текущего пользователя (проекция, без загрузки сущности) */
+    public Optional<UserProfileResponse> getProfile(Long id) {
+        return userRepository.findProfileById(id);
+    }
+
     public int verifyEmail(User user, String code) {
         Optional<VerificationCode> verificationCode = verificationCodeRepository.findActiveByUserId(user.getId());
         if(verificationCode.isPresent()){
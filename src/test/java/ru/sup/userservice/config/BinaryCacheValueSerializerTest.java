@@ -0,0 +1,84 @@
+package ru.sup.userservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import ru.sup.userservice.dto.UserDto;
+import ru.sup.userservice.dto.response.SearchUsersResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryCacheValueSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final BinaryCacheValueSerializer serializer = new BinaryCacheValueSerializer(json);
+
+    private static List<UserDto> users() {
+        return List.of(new UserDto(1L, "alice", "https://cdn/avatars/1.png"), new UserDto(2L, "bob", null));
+    }
+
+    @Test
+    void roundTrip_scalarsAndFriendList() {
+        assertThat(serializer.deserialize(serializer.serialize(42L))).isEqualTo(42L);
+        assertThat(serializer.deserialize(serializer.serialize(true))).isEqualTo(true);
+
+        @SuppressWarnings("unchecked")
+        List<UserDto> decoded = (List<UserDto>) serializer.deserialize(serializer.serialize(users()));
+
+        assertThat(decoded).hasSize(2);
+        assertThat(decoded.get(0).getAvatarURL()).isEqualTo("https://cdn/avatars/1.png");
+        assertThat(decoded.get(1).getUsername()).isEqualTo("bob");
+        assertThat(decoded.get(1).getAvatarURL()).isNull();
+    }
+
+    @Test
+    void roundTrip_searchResponse_isMuchSmallerThanJson() {
+        SearchUsersResponse response = new SearchUsersResponse(users(), 0, 2, 1);
+
+        byte[] binary = serializer.serialize(response);
+        SearchUsersResponse decoded = (SearchUsersResponse) serializer.deserialize(binary);
+
+        assertThat(binary[0]).isEqualTo(BinaryCacheValueSerializer.VERSION);
+        assertThat(decoded.getUsers()).extracting(UserDto::getId).containsExactly(1L, 2L);
+        assertThat(decoded.getTotalItems()).isEqualTo(2);
+        assertThat(binary.length * 3).isLessThan(json.serialize(response).length);
+    }
+
+    @Test
+    void deserialize_legacyJsonValue_isStillReadable() {
+        byte[] legacy = json.serialize(new SearchUsersResponse(new ArrayList<>(users()), 1, 30, 2));
+
+        SearchUsersResponse decoded = (SearchUsersResponse) serializer.deserialize(legacy);
+
+        assertThat(decoded.getCurrentPage()).isEqualTo(1);
+        assertThat(decoded.getUsers()).hasSize(2);
+    }
+
+    @Test
+    void serialize_unregisteredType_fallsBackToJson() {
+        Map<String, String> value = new HashMap<>(Map.of("k", "v"));
+
+        Object decoded = serializer.deserialize(serializer.serialize(value));
+
+        assertThat(decoded).isEqualTo(value);
+    }
+
+    @Test
+    void register_duplicateTypeId_isRejected() {
+        assertThatThrownBy(() -> serializer.register(1, String.class,
+                (out, value) -> out.writeUTF(value), in -> in.readUTF()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deserialize_unknownTypeId_throws() {
+        assertThatThrownBy(() -> serializer.deserialize(new byte[]{BinaryCacheValueSerializer.VERSION, 99}))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.sup.userservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    @Test
+    void getConnection_overLimit_timesOutUntilConnectionClosed() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection raw = mock(Connection.class);
+        when(target.getConnection()).thenReturn(raw);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 50);
+
+        Connection first = dataSource.getConnection();
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close(); // повторное закрытие не выдаёт лишнее разрешение
+        verify(raw, times(2)).close();
+
+        Connection second = dataSource.getConnection();
+        assertThat(second).isNotNull();
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    void getConnection_targetFails_releasesPermit() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection())
+                .thenThrow(new SQLException("db down"))
+                .thenReturn(mock(Connection.class));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 50);
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("db down");
+
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+}
@@ -0,0 +1,51 @@
+package ru.sup.userservice.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class KafkaProducerConfigTest {
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> producerConfig(KafkaProperties kafkaProperties) {
+        DefaultKafkaProducerFactory<String, byte[]> factory =
+                (DefaultKafkaProducerFactory<String, byte[]>) new KafkaProducerConfig().producerFactory(
+                        kafkaProperties, mock(ObjectProvider.class), mock(ObjectProvider.class));
+        return factory.getConfigurationProperties();
+    }
+
+    @Test
+    void producerFactory_defaultsToIdempotentBatchedProducer() {
+        Map<String, Object> config = producerConfig(new KafkaProperties());
+
+        assertThat(config)
+                .containsEntry(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class)
+                .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true)
+                .containsEntry(ProducerConfig.ACKS_CONFIG, "all")
+                .containsEntry(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5)
+                .containsEntry(ProducerConfig.LINGER_MS_CONFIG, 10)
+                .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+    }
+
+    @Test
+    void producerFactory_keepsConfiguredTuning() {
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.getProducer().setCompressionType("zstd");
+        kafkaProperties.getProducer().getProperties().put(ProducerConfig.LINGER_MS_CONFIG, "25");
+
+        Map<String, Object> config = producerConfig(kafkaProperties);
+
+        assertThat(config)
+                .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd")
+                .containsEntry(ProducerConfig.LINGER_MS_CONFIG, "25")
+                .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    }
+}
@@ -0,0 +1,151 @@
+package ru.sup.userservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    private static final String CHANNEL = "user-service:cache-invalidation";
+
+    @Mock private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager remote;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoLevelCacheManager manager;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager();
+        meterRegistry = new SimpleMeterRegistry();
+        manager = new TwoLevelCacheManager(remote, new NearCacheProperties(), redisTemplate, meterRegistry);
+    }
+
+    private double requests(String level, String result) {
+        return meterRegistry.get("cache.near.requests")
+                .tags("cache", "friendsCount", "level", level, "result", result)
+                .functionCounter().count();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void get_remoteHitIsServedFromLocalAfterwards() {
+        remote.getCache("friendsCount").put(1L, 5L);
+        Cache cache = manager.getCache("friendsCount");
+
+        assertThat(cache.get(1L, Long.class)).isEqualTo(5L);
+        remote.getCache("friendsCount").put(1L, 6L);
+        assertThat(cache.get(1L, Long.class)).isEqualTo(5L);
+
+        assertThat(requests("l1", "miss")).isEqualTo(1.0);
+        assertThat(requests("l1", "hit")).isEqualTo(1.0);
+        assertThat(requests("l2", "hit")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.near.hit.ratio").tags("cache", "friendsCount", "level", "l1")
+                .gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void evict_removesBothLevelsAndNotifiesOtherReplicas() {
+        Cache cache = manager.getCache("friendsCount");
+        cache.put(1L, 5L);
+
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(remote.getCache("friendsCount").get(1L)).isNull();
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(2)).convertAndSend(eq(CHANNEL), published.capture());
+        assertThat(published.getValue()).endsWith(" friendsCount 1");
+    }
+
+    @Test
+    void evictAll_dropsEveryKeyWithSinglePipeline() {
+        Cache count = manager.getCache("friendsCount");
+        Cache check = manager.getCache("friendshipCheck");
+        count.put(1L, 5L);
+        count.put(2L, 7L);
+        check.put("1_2", true);
+        count.put(3L, 1L);
+
+        manager.evictAll(Map.of("friendsCount", List.of(1L, 2L), "friendshipCheck", List.of("1_2")));
+
+        assertThat(count.get(1L)).isNull();
+        assertThat(count.get(2L)).isNull();
+        assertThat(check.get("1_2")).isNull();
+        assertThat(remote.getCache("friendshipCheck").get("1_2")).isNull();
+        assertThat(count.get(3L, Long.class)).isEqualTo(1L);
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void evictAllLocal_dropsLocalCopyWithoutRedisOrBroadcast() {
+        Cache cache = manager.getCache("friendsCount");
+        cache.put(1L, 5L);
+        remote.getCache("friendsCount").put(1L, 6L);
+
+        manager.evictAllLocal(Map.of("friendsCount", List.of(1L), "unknownCache", List.of(2L)));
+
+        assertThat(cache.get(1L, Long.class)).isEqualTo(6L);
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        verify(redisTemplate, times(1)).convertAndSend(eq(CHANNEL), any(String.class));
+    }
+
+    @Test
+    void onMessage_fromOtherReplica_dropsLocalCopyOnly() {
+        Cache cache = manager.getCache("friendsCount");
+        cache.put(1L, 5L);
+        remote.getCache("friendsCount").put(1L, 6L);
+
+        manager.onMessage(message("other-instance friendsCount 1"), null);
+
+        assertThat(cache.get(1L, Long.class)).isEqualTo(6L);
+    }
+
+    @Test
+    void onMessage_clearFromOtherReplica_dropsWholeLocalCache() {
+        Cache cache = manager.getCache("friendsCount");
+        cache.put(1L, 5L);
+        remote.getCache("friendsCount").clear();
+
+        manager.onMessage(message("other-instance friendsCount"), null);
+
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void onMessage_ownMessage_isIgnored() {
+        Cache cache = manager.getCache("friendsCount");
+        cache.put(1L, 5L);
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), published.capture());
+        remote.getCache("friendsCount").put(1L, 6L);
+
+        manager.onMessage(message(published.getValue()), null);
+
+        assertThat(cache.get(1L, Long.class)).isEqualTo(5L);
+    }
+}
@@ -10,17 +10,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.sup.userservice.config.SecurityConfig;
-import ru.sup.userservice.entity.RefreshToken;
-import ru.sup.userservice.entity.User;
-import ru.sup.userservice.repository.RefreshTokenRepository;
+import ru.sup.userservice.dto.request.IntrospectTokensRequest;
+import ru.sup.userservice.dto.response.TokenIntrospectionResponse;
 import ru.sup.userservice.security.CustomUserDetailsService;
+import ru.sup.userservice.security.IntrospectionClientAuthenticator;
 import ru.sup.userservice.security.jwt.JwtTokenFilter;
 import ru.sup.userservice.security.jwt.JwtUtil;
+import ru.sup.userservice.service.RefreshTokenStore;
+import ru.sup.userservice.service.StoredRefreshToken;
+import ru.sup.userservice.service.TokenIntrospectionService;
 import ru.sup.userservice.service.UserService;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -38,8 +43,10 @@ class TokenControllerTest {
     @Autowired ObjectMapper objectMapper;
 
     @MockBean UserService userService;
-    @MockBean RefreshTokenRepository refreshTokenRepository;
+    @MockBean RefreshTokenStore refreshTokenStore;
     @MockBean JwtUtil jwtUtil;
+    @MockBean TokenIntrospectionService introspectionService;
+    @MockBean IntrospectionClientAuthenticator introspectionClientAuthenticator;
     @MockBean CustomUserDetailsService customUserDetailsService;
     @MockBean JwtTokenFilter jwtTokenFilter;
 
@@ -57,23 +64,11 @@ class TokenControllerTest {
 
     @Test
     void refresh_validToken_returns200WithNewAccessToken() throws Exception {
-        User user = new User();
-        user.setId(1L);
-        user.setUsername("alice");
-
-        RefreshToken storedToken = RefreshToken.builder()
-                .token("valid.refresh.token")
-                .user(user)
-                .expiryDate(Instant.now().plusSeconds(3600))
-                .revoked(false)
-                .build();
-
-        when(refreshTokenRepository.findByToken("valid.refresh.token")).thenReturn(Optional.of(storedToken));
-        when(userService.buildUserDetails(user)).thenReturn(
-                org.springframework.security.core.userdetails.User
-                        .withUsername("alice").password("pass").authorities("USER").build()
-        );
-        when(jwtUtil.generateAccessToken(any())).thenReturn("new.access.token");
+        StoredRefreshToken storedToken =
+                new StoredRefreshToken(1L, "alice", Instant.now().plusSeconds(3600), false);
+
+        when(refreshTokenStore.findByToken("valid.refresh.token")).thenReturn(Optional.of(storedToken));
+        when(jwtUtil.generateAccessToken(1L, "alice")).thenReturn("new.access.token");
 
         mockMvc.perform(post("/api/v1/user/refresh").with(csrf())
                         .param("refreshToken", "valid.refresh.token"))
@@ -84,32 +79,12 @@ class TokenControllerTest {
 
     @Test
     void refresh_expiredToken_returns200WithNewPair() throws Exception {
-        User user = new User();
-        user.setId(1L);
-        user.setUsername("alice");
-
-        RefreshToken expiredToken = RefreshToken.builder()
-                .token("expired.refresh.token")
-                .user(user)
-                .expiryDate(Instant.now().minusSeconds(100))
-                .revoked(false)
-                .build();
-
-        RefreshToken newToken = RefreshToken.builder()
-                .token("new.refresh.token")
-                .user(user)
-                .expiryDate(Instant.now().plusSeconds(3600))
-                .revoked(false)
-                .build();
-
-        var userDetails = org.springframework.security.core.userdetails.User
-                .withUsername("alice").password("pass").authorities("USER").build();
-
-        when(refreshTokenRepository.findByToken("expired.refresh.token")).thenReturn(Optional.of(expiredToken));
-        when(refreshTokenRepository.save(any())).thenReturn(expiredToken);
-        when(userService.buildUserDetails(user)).thenReturn(userDetails);
-        when(userService.createAndSaveRefreshToken(eq(user), any())).thenReturn(newToken);
-        when(jwtUtil.generateAccessToken(any())).thenReturn("new.access.token");
+        StoredRefreshToken expiredToken =
+                new StoredRefreshToken(1L, "alice", Instant.now().minusSeconds(100), false);
+
+        when(refreshTokenStore.findByToken("expired.refresh.token")).thenReturn(Optional.of(expiredToken));
+        when(userService.createAndSaveRefreshToken(1L, "alice")).thenReturn("new.refresh.token");
+        when(jwtUtil.generateAccessToken(1L, "alice")).thenReturn("new.access.token");
 
         mockMvc.perform(post("/api/v1/user/refresh").with(csrf())
                         .param("refreshToken", "expired.refresh.token"))
@@ -117,12 +92,12 @@ class TokenControllerTest {
                 .andExpect(jsonPath("$.accessToken").value("new.access.token"))
                 .andExpect(jsonPath("$.refreshToken").value("new.refresh.token"));
 
-        verify(refreshTokenRepository).save(argThat(RefreshToken::isRevoked));
+        verify(refreshTokenStore).revoke("expired.refresh.token");
     }
 
     @Test
     void refresh_tokenNotFound_throwsException() {
-        when(refreshTokenRepository.findByToken("unknown.token")).thenReturn(Optional.empty());
+        when(refreshTokenStore.findByToken("unknown.token")).thenReturn(Optional.empty());
 
         assertThrows(Exception.class, () ->
                 mockMvc.perform(post("/api/v1/user/refresh").with(csrf())
@@ -131,18 +106,10 @@ class TokenControllerTest {
 
     @Test
     void refresh_revokedToken_throwsException() {
-        User user = new User();
-        user.setId(1L);
-        user.setUsername("alice");
+        StoredRefreshToken revokedToken =
+                new StoredRefreshToken(1L, "alice", Instant.now().plusSeconds(3600), true);
 
-        RefreshToken revokedToken = RefreshToken.builder()
-                .token("revoked.refresh.token")
-                .user(user)
-                .expiryDate(Instant.now().plusSeconds(3600))
-                .revoked(true)
-                .build();
-
-        when(refreshTokenRepository.findByToken("revoked.refresh.token")).thenReturn(Optional.of(revokedToken));
+        when(refreshTokenStore.findByToken("revoked.refresh.token")).thenReturn(Optional.of(revokedToken));
 
         assertThrows(Exception.class, () ->
                 mockMvc.perform(post("/api/v1/user/refresh").with(csrf())
@@ -161,4 +128,55 @@ class TokenControllerTest {
         assertThrows(Exception.class, () ->
                 mockMvc.perform(post("/api/v1/user/refresh").with(csrf())));
     }
+
+    // ======================== INTROSPECTION ========================
+
+    @Test
+    void introspect_returnsStatusPerToken() throws Exception {
+        IntrospectTokensRequest request = new IntrospectTokensRequest();
+        request.setTokens(List.of("valid.token", "bad.token"));
+
+        when(introspectionClientAuthenticator.isAuthorized("svc-secret")).thenReturn(true);
+        when(introspectionService.introspect(List.of("valid.token", "bad.token"))).thenReturn(List.of(
+                new TokenIntrospectionResponse(true, 1L, "alice", 1_700_000_000_000L),
+                TokenIntrospectionResponse.inactive()));
+
+        mockMvc.perform(post("/api/v1/user/introspect").with(csrf())
+                        .header(IntrospectionClientAuthenticator.HEADER, "svc-secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].active").value(true))
+                .andExpect(jsonPath("$[0].userId").value(1))
+                .andExpect(jsonPath("$[0].username").value("alice"))
+                .andExpect(jsonPath("$[1].active").value(false));
+    }
+
+    @Test
+    void introspect_tooManyTokens_returns400() throws Exception {
+        IntrospectTokensRequest request = new IntrospectTokensRequest();
+        request.setTokens(List.of("a", "b"));
+
+        when(introspectionClientAuthenticator.isAuthorized("svc-secret")).thenReturn(true);
+        when(introspectionService.introspect(any())).thenThrow(new IllegalArgumentException("Too many tokens"));
+
+        mockMvc.perform(post("/api/v1/user/introspect").with(csrf())
+                        .header(IntrospectionClientAuthenticator.HEADER, "svc-secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void introspect_withoutServiceToken_returns401() throws Exception {
+        IntrospectTokensRequest request = new IntrospectTokensRequest();
+        request.setTokens(List.of("valid.token"));
+
+        mockMvc.perform(post("/api/v1/user/introspect").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(introspectionService);
+    }
 }
@@ -9,9 +9,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.sup.userservice.dto.UserDto;
 import ru.sup.userservice.dto.request.LoginRequest;
 import ru.sup.userservice.dto.request.RegisterRequest;
 import ru.sup.userservice.dto.request.UpdateRequest;
@@ -19,9 +22,12 @@ import ru.sup.userservice.dto.request.AvatarUploadUrlRequest;
 import ru.sup.userservice.dto.response.AuthResponse;
 import ru.sup.userservice.dto.response.AvatarUploadUrlResponse;
 import ru.sup.userservice.entity.User;
-import ru.sup.userservice.kafka.UserEventProducer;
+import ru.sup.userservice.exception.RateLimitExceededException;
+import ru.sup.userservice.exception.ServiceOverloadedException;
 import ru.sup.userservice.security.CustomUserDetailsService;
 import ru.sup.userservice.security.jwt.JwtTokenFilter;
+import ru.sup.userservice.security.ratelimit.RateLimitedAction;
+import ru.sup.userservice.security.ratelimit.RateLimiter;
 import ru.sup.userservice.service.AvatarStorageService;
 import ru.sup.userservice.service.UserService;
 
@@ -44,10 +50,10 @@ class UserControllerTest {
     @Autowired ObjectMapper objectMapper;
 
     @MockBean UserService userService;
-    @MockBean UserEventProducer userEventProducer;
     @MockBean AvatarStorageService avatarStorageService;
     @MockBean CustomUserDetailsService customUserDetailsService;
     @MockBean JwtTokenFilter jwtTokenFilter;
+    @MockBean RateLimiter rateLimiter;
 
     @BeforeEach
     void setupFilter() throws Exception {
@@ -67,12 +73,7 @@ class UserControllerTest {
         request.setUsername("alice");
         request.setPassword("pass123");
 
-        User savedUser = new User();
-        savedUser.setId(1L);
-        savedUser.setUsername("alice");
-
         when(userService.register(any())).thenReturn(new AuthResponse("access.token", "refresh.token"));
-        when(userService.findByUsername("alice")).thenReturn(Optional.of(savedUser));
 
         mockMvc.perform(post("/api/v1/user/register").with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -80,8 +81,6 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").value("access.token"))
                 .andExpect(jsonPath("$.refreshToken").value("refresh.token"));
-
-        verify(userEventProducer).sendUserCreated(1L, "alice");
     }
 
     @Test
@@ -99,13 +98,12 @@ class UserControllerTest {
     }
 
     @Test
-    void register_userNotFoundAfterSave_returns500() throws Exception {
+    void register_databaseError_returns500() throws Exception {
         RegisterRequest request = new RegisterRequest();
         request.setUsername("alice");
         request.setPassword("pass");
 
-        when(userService.register(any())).thenReturn(new AuthResponse("token", "refresh"));
-        when(userService.findByUsername("alice")).thenReturn(Optional.empty());
+        when(userService.register(any())).thenThrow(new DataAccessResourceFailureException("database unavailable"));
 
         mockMvc.perform(post("/api/v1/user/register").with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -114,17 +112,18 @@ class UserControllerTest {
     }
 
     @Test
-    void register_unexpectedError_returns500() throws Exception {
+    void register_hashingPoolOverloaded_returns503WithRetryAfter() throws Exception {
         RegisterRequest request = new RegisterRequest();
         request.setUsername("alice");
         request.setPassword("pass");
 
-        when(userService.register(any())).thenThrow(new RuntimeException("unexpected"));
+        when(userService.register(any())).thenThrow(new ServiceOverloadedException("queue is full", 2));
 
         mockMvc.perform(post("/api/v1/user/register").with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isInternalServerError());
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
     }
 
     // ======================== LOGIN ========================
@@ -150,7 +149,7 @@ class UserControllerTest {
         request.setUsername("alice");
         request.setPassword("wrong");
 
-        when(userService.login(any())).thenThrow(new RuntimeException("bad credentials"));
+        when(userService.login(any())).thenThrow(new BadCredentialsException("bad credentials"));
 
         mockMvc.perform(post("/api/v1/user/login").with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -158,6 +157,39 @@ class UserControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void login_hashingPoolOverloaded_returns503WithRetryAfter() throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("alice");
+        request.setPassword("pass123");
+
+        when(userService.login(any())).thenThrow(new ServiceOverloadedException("queue is full", 2));
+
+        mockMvc.perform(post("/api/v1/user/login").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void login_rateLimited_returns429WithoutAuthenticating() throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("alice");
+        request.setPassword("pass123");
+
+        doThrow(new RateLimitExceededException("login rate limit exceeded", 30))
+                .when(rateLimiter).check(eq(RateLimitedAction.LOGIN), any(), eq("alice"));
+
+        mockMvc.perform(post("/api/v1/user/login").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"));
+
+        verifyNoInteractions(userService);
+    }
+
     // ======================== DELETE ========================
 
     @Test
@@ -168,6 +200,7 @@ class UserControllerTest {
         user.setUsername("alice");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
         doNothing().when(userService).deleteUser(user);
 
         mockMvc.perform(delete("/api/v1/user/delete").with(csrf()))
@@ -204,6 +237,7 @@ class UserControllerTest {
         user.setUsername("alice");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
         when(userService.update(any(), any())).thenReturn(new AuthResponse("new.access", "new.refresh"));
 
         mockMvc.perform(put("/api/v1/user/update").with(csrf())
@@ -212,7 +246,7 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").value("new.access"));
 
-        verify(userEventProducer).sendUserUpdated(eq(1L), eq("username"), eq("alice"), anyString());
+        verify(userService).update(eq(user), argThat(newData -> "alice_new".equals(newData.getUsername())));
     }
 
     @Test
@@ -226,6 +260,7 @@ class UserControllerTest {
         user.setUsername("alice");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
 
         mockMvc.perform(put("/api/v1/user/update").with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -247,6 +282,7 @@ class UserControllerTest {
         user.setUsername("alice");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
 
         mockMvc.perform(put("/api/v1/user/update").with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -266,6 +302,7 @@ class UserControllerTest {
         user.setUsername("alice");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
         when(userService.update(any(), any())).thenReturn(new AuthResponse("new.access", "new.refresh"));
 
         mockMvc.perform(put("/api/v1/user/update").with(csrf())
@@ -273,7 +310,7 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
 
-        verify(userEventProducer, never()).sendUserUpdated(any(), any(), any(), any());
+        verify(userService).update(eq(user), argThat(newData -> newData.getUsername() == null));
     }
 
     @Test
@@ -288,6 +325,7 @@ class UserControllerTest {
         user.setUsername("alice");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
         when(userService.update(any(), any())).thenReturn(new AuthResponse("new.access", "new.refresh"));
 
         mockMvc.perform(put("/api/v1/user/update").with(csrf())
@@ -296,7 +334,7 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").value("new.access"));
 
-        verify(userEventProducer, never()).sendUserUpdated(any(), any(), any(), any());
+        verify(userService).update(eq(user), argThat(newData -> newData.getUsername() == null));
     }
 
     @Test
@@ -344,6 +382,7 @@ class UserControllerTest {
         );
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
         when(avatarStorageService.createAvatarUploadUrl(eq(1L), eq("image/jpeg"), eq("avatar.jpg")))
             .thenReturn(response);
 
@@ -355,7 +394,6 @@ class UserControllerTest {
             .andExpect(jsonPath("$.avatarUrl").value("http://localhost:9000/avatars/avatars/1/new.jpg"));
 
         verify(userService).updateAvatarUrl(user, "http://localhost:9000/avatars/avatars/1/new.jpg");
-        verify(userEventProducer).sendUserUpdated(1L, "avatarURL", "http://old/avatar.jpg", "http://localhost:9000/avatars/avatars/1/new.jpg");
         }
 
         @Test
@@ -378,6 +416,7 @@ class UserControllerTest {
         user.setAvatarURL("https://storage.example.com/avatars/avatars/1/new.jpg");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.getUserById(1L)).thenReturn(Optional.of(new UserDto(1L, "alice", user.getAvatarURL())));
         when(avatarStorageService.createAvatarAccessUrl("https://storage.example.com/avatars/avatars/1/new.jpg"))
             .thenReturn("https://presigned.get.url");
         when(avatarStorageService.getDownloadUrlExpirySeconds()).thenReturn(900);
@@ -397,6 +436,7 @@ class UserControllerTest {
         user.setAvatarURL("   ");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.getUserById(1L)).thenReturn(Optional.of(new UserDto(1L, "alice", user.getAvatarURL())));
 
         mockMvc.perform(get("/api/v1/user/avatar/access-url").with(csrf()))
             .andExpect(status().isNotFound());
@@ -411,6 +451,7 @@ class UserControllerTest {
         user.setAvatarURL(null);
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.getUserById(1L)).thenReturn(Optional.of(new UserDto(1L, "alice", user.getAvatarURL())));
 
         mockMvc.perform(get("/api/v1/user/avatar/access-url").with(csrf()))
             .andExpect(status().isNotFound());
@@ -18,6 +18,7 @@ import ru.sup.userservice.dto.response.SearchUsersResponse;
 import ru.sup.userservice.entity.User;
 import ru.sup.userservice.security.CustomUserDetailsService;
 import ru.sup.userservice.security.jwt.JwtTokenFilter;
+import ru.sup.userservice.security.ratelimit.RateLimiter;
 import ru.sup.userservice.service.AvatarStorageService;
 import ru.sup.userservice.service.UserService;
 
@@ -44,6 +45,7 @@ class UtilsControllerTest {
     @MockBean AvatarStorageService avatarStorageService;
     @MockBean CustomUserDetailsService customUserDetailsService;
     @MockBean JwtTokenFilter jwtTokenFilter;
+    @MockBean RateLimiter rateLimiter;
 
     @BeforeEach
     void setupFilter() throws Exception {
@@ -152,6 +154,7 @@ class UtilsControllerTest {
         user.setUsername("alice");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
         when(userService.verifyEmail(user, "ABC123")).thenReturn(0);
 
         mockMvc.perform(post("/api/v1/user/verifyEmail").with(csrf())
@@ -171,6 +174,7 @@ class UtilsControllerTest {
         user.setUsername("alice");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
         when(userService.verifyEmail(user, "WRONG1")).thenReturn(1);
 
         mockMvc.perform(post("/api/v1/user/verifyEmail").with(csrf())
@@ -190,6 +194,7 @@ class UtilsControllerTest {
         user.setUsername("alice");
 
         when(userService.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
         when(userService.verifyEmail(user, "ABC123")).thenReturn(2);
 
         mockMvc.perform(post("/api/v1/user/verifyEmail").with(csrf())
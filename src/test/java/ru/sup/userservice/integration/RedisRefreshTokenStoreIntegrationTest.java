@@ -0,0 +1,91 @@
+package ru.sup.userservice.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.sup.userservice.dto.request.RegisterRequest;
+import ru.sup.userservice.dto.response.AuthResponse;
+import ru.sup.userservice.entity.User;
+import ru.sup.userservice.repository.UserRepository;
+import ru.sup.userservice.service.RefreshTokenStore;
+import ru.sup.userservice.service.UserService;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "refresh-token.store=redis")
+@ActiveProfiles("test")
+@Testcontainers
+class RedisRefreshTokenStoreIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.0-alpine");
+
+    @Container
+    @SuppressWarnings("resource")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7.2-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void configureRedis(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    private AuthResponse register(String username) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("pass123");
+        return userService.register(request);
+    }
+
+    @Test
+    void save_indexesTokenForRevokeAll() {
+        User user = new User();
+        user.setUsername("indexed_user");
+        user.setPassword("x");
+        user = userRepository.save(user);
+        String token = userService.createAndSaveRefreshToken(user.getId(), user.getUsername());
+        assertThat(refreshTokenStore.findByToken(token)).isPresent();
+
+        refreshTokenStore.revokeAllByUser(user.getId());
+
+        assertThat(refreshTokenStore.findByToken(token)).isEmpty();
+    }
+
+    @Test
+    void deleteUser_revokesRefreshTokens() {
+        AuthResponse tokens = register("deleted_user");
+        User user = userRepository.findByUsername("deleted_user").orElseThrow();
+        assertThat(refreshTokenStore.findByToken(tokens.getRefreshToken()))
+                .hasValueSatisfying(stored -> assertThat(stored.expiryDate()).isAfter(Instant.now()));
+
+        userService.deleteUser(user);
+
+        assertThat(refreshTokenStore.findByToken(tokens.getRefreshToken())).isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package ru.sup.userservice.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.sup.userservice.dto.request.RegisterRequest;
+import ru.sup.userservice.entity.OutboxEvent;
+import ru.sup.userservice.repository.OutboxEventRepository;
+import ru.sup.userservice.repository.RefreshTokenRepository;
+import ru.sup.userservice.repository.UserRepository;
+import ru.sup.userservice.security.jwt.JwtUtil;
+import ru.sup.userservice.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class UserOutboxIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.0-alpine");
+
+    @Container
+    @SuppressWarnings("resource")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7.2-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void configureRedis(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @SpyBean
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private static RegisterRequest request(String username) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("pass123");
+        return request;
+    }
+
+    @Test
+    void register_commitsUserAndUserCreatedEventTogether() {
+        userService.register(request("outbox_user"));
+
+        assertThat(userRepository.findByUsername("outbox_user")).isPresent();
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEvent::getEventType)
+                .containsExactly("user.created");
+    }
+
+    @Test
+    void register_failureAfterEventQueued_rollsBackOutboxRow() {
+        // Падение после записи события в outbox, но до коммита
+        doThrow(new IllegalStateException("token generation failed"))
+                .when(jwtUtil).generateTokenPair(anyLong(), anyString());
+
+        assertThatThrownBy(() -> userService.register(request("rolled_back")))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(userRepository.findByUsername("rolled_back")).isEmpty();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+}
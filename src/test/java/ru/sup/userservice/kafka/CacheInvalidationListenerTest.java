@@ -0,0 +1,142 @@
+package ru.sup.userservice.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import ru.sup.userservice.config.NearCacheProperties;
+import ru.sup.userservice.config.TwoLevelCacheManager;
+import ru.sup.userservice.data.FriendRequestAction;
+import ru.sup.userservice.dto.event.FriendRequestEvent;
+import ru.sup.userservice.repository.FriendshipRepository;
+import ru.sup.userservice.service.FriendshipCache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationListenerTest {
+
+    @Mock private FriendshipRepository friendshipRepository;
+    @Mock private StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ConcurrentMapCacheManager cacheManager;
+    private CacheInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager();
+        listener = new CacheInvalidationListener(new FriendshipCache(cacheManager, friendshipRepository), friendshipRepository,
+                new EventSerializer(objectMapper, EventEncoding.PROTOBUF));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, String key, String eventType,
+                                                         byte[] payload, EventEncoding encoding) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(topic, 0, 0L, key, payload);
+        record.headers()
+                .add(OutboxRelay.EVENT_TYPE_HEADER, eventType.getBytes(StandardCharsets.UTF_8))
+                .add(OutboxRelay.CONTENT_TYPE_HEADER, encoding.contentType().getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private void put(String cacheName, Object key) {
+        cacheManager.getCache(cacheName).put(key, "cached");
+    }
+
+    private boolean cached(String cacheName, Object key) {
+        return cacheManager.getCache(cacheName).get(key) != null;
+    }
+
+    @Test
+    void friendshipEvent_evictsBothUsersListsCountsAndCheck() {
+        put("userFriendsList", 1L);
+        put("userFriendsList", 2L);
+        put("friendsCount", 2L);
+        put("friendshipCheck", "1_2");
+        put("userFriendsList", 3L);
+        FriendRequestEvent event = new FriendRequestEvent(2L, 1L, FriendRequestAction.REQUEST_ACCEPTED, LocalDateTime.now());
+        byte[] payload = EventSerializer.toProto(event).toByteArray();
+
+        listener.onEvents(List.of(record(FriendshipEventProducer.TOPIC, "2", "friendship.request.accepted",
+                payload, EventEncoding.PROTOBUF)));
+
+        assertThat(cached("userFriendsList", 1L)).isFalse();
+        assertThat(cached("userFriendsList", 2L)).isFalse();
+        assertThat(cached("friendsCount", 2L)).isFalse();
+        assertThat(cached("friendshipCheck", "1_2")).isFalse();
+        assertThat(cached("userFriendsList", 3L)).isTrue();
+    }
+
+    @Test
+    void friendshipEvent_withNearCache_dropsOnlyLocalCopy() {
+        // Redis уже очищен узлом, где изменилась дружба
+        ConcurrentMapCacheManager remote = new ConcurrentMapCacheManager();
+        TwoLevelCacheManager nearCache = new TwoLevelCacheManager(remote, new NearCacheProperties(),
+                redisTemplate, new SimpleMeterRegistry());
+        listener = new CacheInvalidationListener(new FriendshipCache(nearCache, friendshipRepository),
+                friendshipRepository, new EventSerializer(objectMapper, EventEncoding.PROTOBUF));
+        Cache count = nearCache.getCache("friendsCount");
+        count.put(1L, 5L);
+        remote.getCache("friendsCount").put(1L, 4L);
+        FriendRequestEvent event = new FriendRequestEvent(2L, 1L, FriendRequestAction.FRIEND_REMOVED, LocalDateTime.now());
+
+        listener.onEvents(List.of(record(FriendshipEventProducer.TOPIC, "2", "friendship.removed",
+                EventSerializer.toProto(event).toByteArray(), EventEncoding.PROTOBUF)));
+
+        assertThat(count.get(1L, Long.class)).isEqualTo(4L);
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void friendshipEvent_jsonPayload_isStillUnderstood() throws Exception {
+        put("friendsCount", 1L);
+        byte[] payload = objectMapper.writeValueAsBytes(
+                new FriendRequestEvent(2L, 1L, FriendRequestAction.FRIEND_REMOVED, LocalDateTime.now()));
+
+        listener.onEvents(List.of(record(FriendshipEventProducer.TOPIC, "2", "friendship.removed",
+                payload, EventEncoding.JSON)));
+
+        assertThat(cached("friendsCount", 1L)).isFalse();
+    }
+
+    @Test
+    void userUpdated_evictsFriendsListsOnly() {
+        put("user-search", "al:0:0:20:bob");
+        put("userFriendsList", 5L);
+        put("userFriendsList", 6L);
+        when(friendshipRepository.findAcceptedFriendIds(1L)).thenReturn(List.of(5L));
+
+        listener.onEvents(List.of(record(UserEventProducer.TOPIC, "1", "user.updated",
+                new byte[0], EventEncoding.PROTOBUF)));
+
+        assertThat(cached("user-search", "al:0:0:20:bob")).isTrue();
+        assertThat(cached("userFriendsList", 5L)).isFalse();
+        assertThat(cached("userFriendsList", 6L)).isTrue();
+    }
+
+    @Test
+    void malformedEvent_isSkippedWithoutFailingBatch() {
+        put("friendsCount", 1L);
+
+        listener.onEvents(List.of(record(FriendshipEventProducer.TOPIC, "2", "friendship.removed",
+                "not json".getBytes(StandardCharsets.UTF_8), EventEncoding.JSON)));
+
+        assertThat(cached("friendsCount", 1L)).isTrue();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.sup.userservice.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import ru.sup.userservice.data.FriendRequestAction;
+import ru.sup.userservice.dto.EmailCode;
+import ru.sup.userservice.dto.event.FriendRequestEvent;
+import ru.sup.userservice.dto.event.UserUpdatedEvent;
+import ru.sup.userservice.entity.OutboxEvent;
+import ru.sup.userservice.kafka.proto.EmailCodeRequested;
+import ru.sup.userservice.kafka.proto.FriendRequest;
+import ru.sup.userservice.kafka.proto.UserUpdated;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final EventSerializer json = new EventSerializer(objectMapper, EventEncoding.JSON);
+    private final EventSerializer protobuf = new EventSerializer(objectMapper, EventEncoding.PROTOBUF);
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 12, 30, 15);
+
+    private static FriendRequestEvent friendRequest() {
+        return new FriendRequestEvent(2L, 1L, FriendRequestAction.REQUEST_ACCEPTED, NOW);
+    }
+
+    @Test
+    void serialize_json_writesSameDocumentAsObjectMapper() throws Exception {
+        byte[] payload = json.serialize(friendRequest());
+
+        assertThat(payload).isEqualTo(objectMapper.writeValueAsBytes(friendRequest()));
+    }
+
+    @Test
+    void serialize_protobuf_roundTripsFriendRequest() throws Exception {
+        FriendRequest decoded = FriendRequest.parseFrom(protobuf.serialize(friendRequest()));
+
+        assertThat(decoded.getRecipientId()).isEqualTo(2L);
+        assertThat(decoded.getSenderId()).isEqualTo(1L);
+        assertThat(decoded.getAction()).isEqualTo(ru.sup.userservice.kafka.proto.FriendRequestAction.REQUEST_ACCEPTED);
+        assertThat(decoded.getTimestampMs())
+                .isEqualTo(NOW.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void serialize_protobuf_mapsNullStringsToEmpty() throws Exception {
+        UserUpdated decoded = UserUpdated.parseFrom(
+                protobuf.serialize(new UserUpdatedEvent(1L, "email", null, "a@b.c", 42L)));
+
+        assertThat(decoded.getOldValue()).isEmpty();
+        assertThat(decoded.getNewValue()).isEqualTo("a@b.c");
+        assertThat(decoded.getTimestampMs()).isEqualTo(42L);
+    }
+
+    @Test
+    void serialize_protobuf_isSmallerThanJson() {
+        EmailCode event = new EmailCode(1L, "alice@mail.com", "123456", "REGISTER");
+
+        assertThat(protobuf.serialize(event).length).isLessThan(json.serialize(event).length / 2);
+    }
+
+    @Test
+    void serialize_protobuf_unknownEvent_throws() {
+        assertThatThrownBy(() -> protobuf.serialize("not an event"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void toOutboxEvent_recordsFormatAndSchemaVersion() throws Exception {
+        EmailCode event = new EmailCode(7L, "alice@mail.com", "123456", "REGISTER");
+
+        OutboxEvent outboxEvent = protobuf.toOutboxEvent("email-auth-codes", "7", "email.send_code", event);
+
+        assertThat(outboxEvent.getContentType()).isEqualTo("application/x-protobuf");
+        assertThat(outboxEvent.getSchemaVersion()).isEqualTo(EventSerializer.SCHEMA_VERSION);
+        assertThat(EmailCodeRequested.parseFrom(outboxEvent.getPayload()).getCode()).isEqualTo("123456");
+    }
+}
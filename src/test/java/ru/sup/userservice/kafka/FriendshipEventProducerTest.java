@@ -2,86 +2,102 @@ package ru.sup.userservice.kafka;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import ru.sup.userservice.entity.OutboxEvent;
+import ru.sup.userservice.repository.OutboxEventRepository;
 
-import java.util.concurrent.CompletableFuture;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class FriendshipEventProducerTest {
 
+    private static final byte[] JSON = "{}".getBytes(StandardCharsets.UTF_8);
+
     @Mock
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxEventRepository outboxEventRepository;
 
     @Mock
     private ObjectMapper objectMapper;
 
-    @InjectMocks
     private FriendshipEventProducer producer;
 
+    @BeforeEach
+    void setUp() {
+        producer = new FriendshipEventProducer(outboxEventRepository, new EventSerializer(objectMapper, EventEncoding.JSON));
+    }
+
+    private List<OutboxEvent> savedEvents(int count) {
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository, times(count)).save(captor.capture());
+        return captor.getAllValues();
+    }
+
     @Test
-    void sendFriendRequestSent_success_sendsToKafka() throws Exception {
-        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-        when(kafkaTemplate.send(eq("friendship-events"), eq("friendship.request.sent"), eq("{}")))
-                .thenReturn(CompletableFuture.completedFuture(null));
+    void sendFriendRequestSent_success_writesToOutbox() throws Exception {
+        when(objectMapper.writeValueAsBytes(any())).thenReturn(JSON);
 
         producer.sendFriendRequestSent(1L, 2L);
 
-        verify(kafkaTemplate).send("friendship-events", "friendship.request.sent", "{}");
+        OutboxEvent event = savedEvents(1).get(0);
+        assertEquals("friendship-events", event.getTopic());
+        assertEquals("friendship.request.sent", event.getEventType());
+        assertEquals("2", event.getMessageKey());
+        assertArrayEquals(JSON, event.getPayload());
+        assertEquals(EventSerializer.SCHEMA_VERSION, event.getSchemaVersion());
     }
 
     @Test
-    void sendFriendRequestAccepted_success_sendsToKafka() throws Exception {
-        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-        when(kafkaTemplate.send(eq("friendship-events"), eq("friendship.request.accepted"), eq("{}")))
-                .thenReturn(CompletableFuture.completedFuture(null));
+    void sendFriendRequestAccepted_success_writesToOutbox() throws Exception {
+        when(objectMapper.writeValueAsBytes(any())).thenReturn(JSON);
 
         producer.sendFriendRequestAccepted(1L, 2L);
 
-        verify(kafkaTemplate).send("friendship-events", "friendship.request.accepted", "{}");
+        assertEquals("friendship.request.accepted", savedEvents(1).get(0).getEventType());
     }
 
     @Test
     void sendFriendRequestRejected_serializationError_throwsRuntimeException() throws Exception {
-        when(objectMapper.writeValueAsString(any())).thenThrow(new JsonProcessingException("boom") {});
+        when(objectMapper.writeValueAsBytes(any())).thenThrow(new JsonProcessingException("boom") {});
 
         assertThrows(RuntimeException.class,
                 () -> producer.sendFriendRequestRejected(1L, 2L));
+        verify(outboxEventRepository, never()).save(any());
     }
 
     @Test
-    void sendFriendRequestCancelled_sendError_isSwallowed() throws Exception {
-        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-        when(kafkaTemplate.send(eq("friendship-events"), eq("friendship.request.cancelled"), eq("{}")))
-                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("kafka down")));
+    void sendFriendRequestCancelled_success_writesToOutbox() throws Exception {
+        when(objectMapper.writeValueAsBytes(any())).thenReturn(JSON);
 
         producer.sendFriendRequestCancelled(1L, 2L);
 
-        verify(kafkaTemplate).send("friendship-events", "friendship.request.cancelled", "{}");
+        assertEquals("friendship.request.cancelled", savedEvents(1).get(0).getEventType());
     }
 
     @Test
-    void sendFriendRemoved_andUserBlocked_success_sendsToKafka() throws Exception {
-        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-        when(kafkaTemplate.send(eq("friendship-events"), eq("friendship.removed"), eq("{}")))
-                .thenReturn(CompletableFuture.completedFuture(null));
-        when(kafkaTemplate.send(eq("friendship-events"), eq("friendship.user.blocked"), eq("{}")))
-                .thenReturn(CompletableFuture.completedFuture(null));
+    void sendFriendRemoved_andUserBlocked_success_writesToOutbox() throws Exception {
+        when(objectMapper.writeValueAsBytes(any())).thenReturn(JSON);
 
         producer.sendFriendRemoved(1L, 2L);
         producer.sendUserBlocked(1L, 2L);
 
-        verify(kafkaTemplate).send("friendship-events", "friendship.removed", "{}");
-        verify(kafkaTemplate).send("friendship-events", "friendship.user.blocked", "{}");
+        List<OutboxEvent> events = savedEvents(2);
+        assertEquals("friendship.removed", events.get(0).getEventType());
+        assertEquals("friendship.user.blocked", events.get(1).getEventType());
+        assertEquals("2", events.get(1).getMessageKey());
     }
 }
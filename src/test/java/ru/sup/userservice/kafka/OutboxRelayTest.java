@@ -0,0 +1,192 @@
+package ru.sup.userservice.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.sup.userservice.config.OutboxProperties;
+import ru.sup.userservice.entity.OutboxEvent;
+import ru.sup.userservice.repository.OutboxEventRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock private OutboxEventRepository outboxEventRepository;
+    @Mock private KafkaTemplate<String, byte[]> kafkaTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, kafkaTemplate, new OutboxProperties(),
+                transactionManager, meterRegistry);
+    }
+
+    private static OutboxEvent event(long id, String key) {
+        OutboxEvent event = new OutboxEvent("user-events", key, "user.created",
+                "{}".getBytes(StandardCharsets.UTF_8), EventEncoding.JSON.contentType(), EventSerializer.SCHEMA_VERSION);
+        event.setId(id);
+        return event;
+    }
+
+    @Test
+    void publishBatch_allAcknowledged_marksBatchPublishedOnce() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of(event(1, "a"), event(2, "b")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        int published = relay.publishBatch(100).published();
+
+        assertThat(published).isEqualTo(2);
+        verify(outboxEventRepository).markPublished(eq(List.of(1L, 2L)), any(Instant.class));
+        assertThat(meterRegistry.get("outbox.events.published").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void publishBatch_failedSend_leavesEventForRetry() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of(event(1, "a"), event(2, "b")));
+        when(kafkaTemplate.send(argThat((ProducerRecord<String, byte[]> r) -> r != null && "a".equals(r.key()))))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+        when(kafkaTemplate.send(argThat((ProducerRecord<String, byte[]> r) -> r != null && "b".equals(r.key()))))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        int published = relay.publishBatch(100).published();
+
+        assertThat(published).isEqualTo(1);
+        verify(outboxEventRepository).markPublished(eq(List.of(2L)), any(Instant.class));
+        assertThat(meterRegistry.get("outbox.events.failed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void publishBatch_rejectedByBroker_countsAttempt() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of(event(1, "a"), event(2, "b")));
+        when(kafkaTemplate.send(argThat((ProducerRecord<String, byte[]> r) -> r != null && "a".equals(r.key()))))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+        when(kafkaTemplate.send(argThat((ProducerRecord<String, byte[]> r) -> r != null && "b".equals(r.key()))))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.publishBatch(100);
+
+        verify(outboxEventRepository).incrementAttempts(List.of(1L));
+        verify(outboxEventRepository, never()).park(any(), any());
+    }
+
+    @Test
+    void publishBatch_lastAttemptRejected_parksEvent() {
+        OutboxEvent poison = event(1, "a");
+        poison.setAttempts(new OutboxProperties().getMaxAttempts() - 1);
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of(poison));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+
+        relay.publishBatch(100);
+
+        verify(outboxEventRepository).incrementAttempts(List.of(1L));
+        verify(outboxEventRepository).park(eq(List.of(1L)), any(Instant.class));
+        assertThat(meterRegistry.get("outbox.events.parked").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void publishBatch_recordsPerTopicLatencyAndBatchSize() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of(event(1, "a"), event(2, "b")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.publishBatch(100);
+
+        assertThat(meterRegistry.get("outbox.send.latency").tag("topic", "user-events").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("outbox.batch.size").tag("topic", "user-events").summary().totalAmount())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void toRecord_keysByUserAndCarriesTypeAndFormatHeaders() {
+        ProducerRecord<String, byte[]> record = OutboxRelay.toRecord(event(1, "42"));
+
+        assertThat(record.topic()).isEqualTo("user-events");
+        assertThat(record.key()).isEqualTo("42");
+        assertThat(header(record, OutboxRelay.EVENT_TYPE_HEADER)).isEqualTo("user.created");
+        assertThat(header(record, OutboxRelay.CONTENT_TYPE_HEADER)).isEqualTo("application/json");
+        assertThat(header(record, OutboxRelay.SCHEMA_VERSION_HEADER)).isEqualTo("1");
+    }
+
+    private static String header(ProducerRecord<String, byte[]> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void relay_brokerUnavailable_backsOffUntilNextAttempt() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.lockNextBatch(100))
+                .thenReturn(List.of(event(1, "a"), event(2, "b"), event(3, "c")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenThrow(new KafkaException("Send failed",
+                        new TimeoutException("Topic user-events not present in metadata after 5000 ms")));
+
+        relay.relay();
+        relay.relay();
+
+        verify(outboxEventRepository, times(1)).lockNextBatch(100);
+        // После первой синхронной ошибки остаток пачки не отправляется
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        verify(outboxEventRepository, never()).markPublished(any(), any());
+        // Недоступность брокера — не отказ события: попытки не расходуются
+        verify(outboxEventRepository, never()).incrementAttempts(any());
+        assertThat(meterRegistry.get("outbox.relay.consecutive.failures").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void relay_otherReplicaHoldsRelayLock_sendsNothing() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(false);
+
+        relay.relay();
+
+        verify(outboxEventRepository, never()).lockNextBatch(anyInt());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(outboxEventRepository).deletePublishedBatch(any(Instant.class), anyInt());
+        assertThat(meterRegistry.get("outbox.relay.consecutive.failures").gauge().value()).isZero();
+    }
+
+    @Test
+    void relay_emptyOutbox_onlyPurgesOldRows() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.lockNextBatch(100)).thenReturn(List.of());
+
+        relay.relay();
+
+        verify(outboxEventRepository, never()).markPublished(any(), any());
+        verify(outboxEventRepository).deletePublishedBatch(any(Instant.class), anyInt());
+    }
+}
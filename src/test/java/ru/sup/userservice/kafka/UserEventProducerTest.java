@@ -2,49 +2,66 @@ package ru.sup.userservice.kafka;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import ru.sup.userservice.entity.OutboxEvent;
+import ru.sup.userservice.repository.OutboxEventRepository;
 
-import java.util.concurrent.CompletableFuture;
+import java.nio.charset.StandardCharsets;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class UserEventProducerTest {
 
+    private static final byte[] JSON = "{}".getBytes(StandardCharsets.UTF_8);
+
     @Mock
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxEventRepository outboxEventRepository;
 
     @Mock
     private ObjectMapper objectMapper;
 
-    @InjectMocks
     private UserEventProducer producer;
 
+    @BeforeEach
+    void setUp() {
+        producer = new UserEventProducer(outboxEventRepository, new EventSerializer(objectMapper, EventEncoding.JSON));
+    }
+
     @Test
-    void sendUserCreated_success_sendsToKafka() throws Exception {
-        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-        when(kafkaTemplate.send(eq("user-events"), eq("user.created"), eq("{}")))
-                .thenReturn(CompletableFuture.completedFuture(null));
+    void sendUserCreated_success_writesToOutbox() throws Exception {
+        when(objectMapper.writeValueAsBytes(any())).thenReturn(JSON);
 
         producer.sendUserCreated(1L, "alice");
 
-        verify(kafkaTemplate).send("user-events", "user.created", "{}");
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        assertEquals("user-events", captor.getValue().getTopic());
+        assertEquals("user.created", captor.getValue().getEventType());
+        assertEquals("1", captor.getValue().getMessageKey());
+        assertArrayEquals(JSON, captor.getValue().getPayload());
+        assertEquals("application/json", captor.getValue().getContentType());
+        assertNull(captor.getValue().getPublishedAt());
     }
 
     @Test
     void sendUserUpdated_serializationError_throwsRuntimeException() throws Exception {
-        when(objectMapper.writeValueAsString(any())).thenThrow(new JsonProcessingException("boom") {});
+        when(objectMapper.writeValueAsBytes(any())).thenThrow(new JsonProcessingException("boom") {});
 
         assertThrows(RuntimeException.class,
                 () -> producer.sendUserUpdated(1L, "username", "old", "new"));
+        verify(outboxEventRepository, never()).save(any());
     }
 }
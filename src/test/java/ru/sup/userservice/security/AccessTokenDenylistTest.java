@@ -0,0 +1,87 @@
+package ru.sup.userservice.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import ru.sup.userservice.config.AccessTokenDenylistProperties;
+import ru.sup.userservice.security.jwt.AccessTokenDenylist;
+import ru.sup.userservice.security.jwt.LongBloomFilter;
+
+import java.util.Date;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccessTokenDenylistTest {
+
+    private static final String KEY = "user-service:access-revocations";
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ZSetOperations<String, String> zSetOps;
+
+    private AccessTokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        denylist = new AccessTokenDenylist(redisTemplate, new AccessTokenDenylistProperties(), 900_000);
+    }
+
+    @Test
+    void isRevoked_unknownUser_answersFromBloomWithoutRedis() {
+        assertThat(denylist.isRevoked(1L, new Date())).isFalse();
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void isRevoked_tokenIssuedBeforeRevocation_isRevoked() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        denylist.revokeAllForUser(1L);
+        long revokedAtSec = System.currentTimeMillis() / 1000;
+        when(zSetOps.score(KEY, "1")).thenReturn((double) revokedAtSec);
+
+        assertThat(denylist.isRevoked(1L, new Date((revokedAtSec - 60) * 1000))).isTrue();
+        assertThat(denylist.isRevoked(1L, new Date(revokedAtSec * 1000))).isFalse();
+        verify(zSetOps).add(eq(KEY), eq("1"), anyDouble());
+    }
+
+    @Test
+    void sync_loadsRevocationsFromOtherNodes() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        when(zSetOps.rangeByScoreWithScores(eq(KEY), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+                .thenReturn(Set.of(new DefaultTypedTuple<>("42", 1_000.0)));
+        when(zSetOps.score(KEY, "42")).thenReturn(1_000.0);
+
+        denylist.sync();
+
+        assertThat(denylist.isRevoked(42L, new Date(999_000))).isTrue();
+        verify(zSetOps).removeRangeByScore(eq(KEY), eq(Double.NEGATIVE_INFINITY), anyDouble());
+    }
+
+    @Test
+    void bloomFilter_hasNoFalseNegatives() {
+        LongBloomFilter filter = LongBloomFilter.create(10_000, 0.01);
+        for (long id = 0; id < 10_000; id++) {
+            filter.put(id);
+        }
+
+        for (long id = 0; id < 10_000; id++) {
+            assertThat(filter.mightContain(id)).isTrue();
+        }
+        long falsePositives = 0;
+        for (long id = 10_000; id < 110_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+}
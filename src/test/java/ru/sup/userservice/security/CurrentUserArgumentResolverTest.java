@@ -0,0 +1,102 @@
+package ru.sup.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import ru.sup.userservice.entity.User;
+import ru.sup.userservice.service.UserService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class CurrentUserArgumentResolverTest {
+
+    private final UserService userService = mock(UserService.class);
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<UserService> userServiceProvider = mock(ObjectProvider.class);
+
+    private final CurrentUserArgumentResolver resolver = new CurrentUserArgumentResolver(userServiceProvider);
+
+    @Test
+    void resolve_jwtPrincipal_returnsItWithoutLookup() {
+        AuthenticatedUser principal = new AuthenticatedUser(7L, "alice");
+        Authentication authentication =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+
+        AuthenticatedUser resolved = resolver.resolve(authentication);
+
+        assertThat(resolved).isSameAs(principal);
+        verifyNoInteractions(userServiceProvider);
+    }
+
+    @Test
+    void resolve_otherPrincipal_looksUpIdByUsername() {
+        User user = new User();
+        user.setId(3L);
+        user.setUsername("bob");
+        when(userServiceProvider.getObject()).thenReturn(userService);
+        when(userService.findByUsername("bob")).thenReturn(Optional.of(user));
+
+        AuthenticatedUser resolved = resolver.resolve(new TestingAuthenticationToken("bob", null, "USER"));
+
+        assertThat(resolved.userId()).isEqualTo(3L);
+        assertThat(resolved.username()).isEqualTo("bob");
+    }
+
+    @Test
+    void resolve_whenAuthenticationIsNull_throwsUsernameNotFound() {
+        assertThrows(UsernameNotFoundException.class, () -> resolver.resolve(null));
+    }
+
+    @Test
+    void resolve_whenAuthenticationNameIsNull_throwsUsernameNotFound() {
+        assertThrows(UsernameNotFoundException.class, () -> resolver.resolve(new NullNameAuthentication()));
+    }
+
+    private static final class NullNameAuthentication implements Authentication {
+        @Override
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return List.of();
+        }
+
+        @Override
+        public Object getCredentials() {
+            return null;
+        }
+
+        @Override
+        public Object getDetails() {
+            return null;
+        }
+
+        @Override
+        public Object getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return true;
+        }
+
+        @Override
+        public void setAuthenticated(boolean isAuthenticated) {
+            // no-op for test stub
+        }
+
+        @Override
+        public String getName() {
+            return null;
+        }
+    }
+}
@@ -14,6 +14,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +24,9 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UnknownUsernameCache unknownUsernames;
+
     @InjectMocks
     private CustomUserDetailsService customUserDetailsService;
 
@@ -42,7 +47,35 @@ class CustomUserDetailsServiceTest {
     void loadUserByUsername_notFound_throwsException() {
         when(userRepository.findByUsername("alice")).thenReturn(Optional.empty());
 
-        assertThrows(UsernameNotFoundException.class,
+        UsernameNotFoundException e = assertThrows(UsernameNotFoundException.class,
                 () -> customUserDetailsService.loadUserByUsername("alice"));
+        assertEquals(0, e.getStackTrace().length);
+        verify(unknownUsernames).markUnknown("alice");
+    }
+
+    @Test
+    void loadUserByUsername_recentlyUnknown_skipsRepository() {
+        when(unknownUsernames.isUnknown("ghost")).thenReturn(true);
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> customUserDetailsService.loadUserByUsername("ghost"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void updatePassword_savesUpgradedHash() {
+        User user = new User();
+        user.setUsername("alice");
+        user.setPassword("$2a$04$old");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+
+        UserDetails details = customUserDetailsService.updatePassword(
+                org.springframework.security.core.userdetails.User.withUsername("alice")
+                        .password("$2a$04$old").authorities("USER").build(),
+                "{bcrypt}$2a$12$new");
+
+        assertEquals("{bcrypt}$2a$12$new", user.getPassword());
+        assertEquals("{bcrypt}$2a$12$new", details.getPassword());
+        verify(userRepository).save(user);
     }
 }
@@ -0,0 +1,44 @@
+package ru.sup.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import ru.sup.userservice.config.IntrospectionProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntrospectionClientAuthenticatorTest {
+
+    private static IntrospectionClientAuthenticator authenticator(String... secrets) {
+        IntrospectionProperties properties = new IntrospectionProperties();
+        properties.setClientSecrets(new ArrayList<>(List.of(secrets)));
+        return new IntrospectionClientAuthenticator(properties);
+    }
+
+    @Test
+    void isAuthorized_acceptsAnyConfiguredSecret() {
+        IntrospectionClientAuthenticator authenticator = authenticator("old-secret", "new-secret");
+
+        assertThat(authenticator.isAuthorized("old-secret")).isTrue();
+        assertThat(authenticator.isAuthorized("new-secret")).isTrue();
+        assertThat(authenticator.isAuthorized("other")).isFalse();
+    }
+
+    @Test
+    void isAuthorized_missingCredential_isRejected() {
+        IntrospectionClientAuthenticator authenticator = authenticator("secret");
+
+        assertThat(authenticator.isAuthorized(null)).isFalse();
+        assertThat(authenticator.isAuthorized("")).isFalse();
+    }
+
+    @Test
+    void isAuthorized_noSecretsConfigured_rejectsEverything() {
+        IntrospectionClientAuthenticator authenticator = authenticator("", " ");
+
+        assertThat(authenticator.isAuthorized("")).isFalse();
+        assertThat(authenticator.isAuthorized(" ")).isFalse();
+        assertThat(authenticator.isAuthorized("anything")).isFalse();
+    }
+}
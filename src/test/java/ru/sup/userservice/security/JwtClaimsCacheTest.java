@@ -0,0 +1,93 @@
+package ru.sup.userservice.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.sup.userservice.security.jwt.JwtClaimsCache;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JwtClaimsCacheTest {
+
+    private static Claims claims(long expiresInMs) {
+        return Jwts.claims()
+                .subject("alice")
+                .expiration(new Date(System.currentTimeMillis() + expiresInMs))
+                .build();
+    }
+
+    @Test
+    void get_sameToken_parsesOnce() {
+        JwtClaimsCache cache = new JwtClaimsCache(100);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            Claims result = cache.get("token", t -> {
+                loads.incrementAndGet();
+                return claims(60_000);
+            });
+            assertThat(result.getSubject()).isEqualTo("alice");
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_expiredEntry_isNotCached() {
+        JwtClaimsCache cache = new JwtClaimsCache(100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("token", t -> {
+            loads.incrementAndGet();
+            return claims(-1_000);
+        });
+        cache.get("token", t -> {
+            loads.incrementAndGet();
+            return claims(-1_000);
+        });
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_loaderThrows_exceptionPropagatesAndNothingCached() {
+        JwtClaimsCache cache = new JwtClaimsCache(100);
+
+        assertThatThrownBy(() -> cache.get("bad", t -> {
+            throw new IllegalArgumentException("invalid");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_overCapacity_staysWithinMaxSize() {
+        JwtClaimsCache cache = new JwtClaimsCache(4);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get("token-" + i, t -> claims(60_000));
+        }
+
+        assertThat(cache.size()).isEqualTo(4);
+    }
+
+    @Test
+    void bindTo_exposesHitAndMissCounters() {
+        JwtClaimsCache cache = new JwtClaimsCache(100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get("token", t -> claims(60_000));
+        cache.get("token", t -> claims(60_000));
+
+        assertThat(registry.get("jwt.claims.cache.requests").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("jwt.claims.cache.requests").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,131 @@
+package ru.sup.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import ru.sup.userservice.config.JwtSigningProperties;
+import ru.sup.userservice.security.jwt.JwtClaimsCache;
+import ru.sup.userservice.security.jwt.JwtKeyRing;
+import ru.sup.userservice.security.jwt.JwtUtil;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    private static final String SECRET = "testSecretKeyForTestingPurposesOnlyMustBe32BytesLong";
+
+    private static JwtUtil jwtUtil(JwtSigningProperties properties) {
+        return new JwtUtil(new JwtKeyRing(SECRET, properties), 900_000L, 2_592_000_000L, new JwtClaimsCache(100));
+    }
+
+    private static JwtSigningProperties.Key asymmetricKey(String kid, String algorithm, KeyPair keyPair) {
+        JwtSigningProperties.Key key = new JwtSigningProperties.Key();
+        key.setKid(kid);
+        key.setAlgorithm(algorithm);
+        key.setPublicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        key.setPrivateKey(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        return key;
+    }
+
+    private static JwtSigningProperties.Key hmacKey(String kid, String secret) {
+        JwtSigningProperties.Key key = new JwtSigningProperties.Key();
+        key.setKid(kid);
+        key.setSecret(secret);
+        return key;
+    }
+
+    @Test
+    void rotation_tokensSignedBeforeRotationStayValid() {
+        String legacyToken = jwtUtil(new JwtSigningProperties()).generateAccessToken(1L, "alice");
+        JwtSigningProperties hmac = new JwtSigningProperties();
+        hmac.getKeys().add(hmacKey("k1", "anotherSecretKeyForTestingPurposesOnly32Bytes"));
+        hmac.setActiveKid("k1");
+        String hmacToken = jwtUtil(hmac).generateAccessToken(2L, "bob");
+
+        JwtSigningProperties rotated = new JwtSigningProperties();
+        rotated.getKeys().add(hmacKey("k1", "anotherSecretKeyForTestingPurposesOnly32Bytes"));
+        rotated.getKeys().add(asymmetricKey("k2", "EdDSA", generate("Ed25519")));
+        rotated.setActiveKid("k2");
+        JwtUtil afterRotation = jwtUtil(rotated);
+
+        assertThat(afterRotation.extractId(legacyToken)).isEqualTo(1L);
+        assertThat(afterRotation.extractId(hmacToken)).isEqualTo(2L);
+        assertThat(afterRotation.extractId(afterRotation.generateAccessToken(3L, "carol"))).isEqualTo(3L);
+    }
+
+    @Test
+    void acceptLegacyDisabled_tokensWithoutKidRejected() {
+        String legacyToken = jwtUtil(new JwtSigningProperties()).generateAccessToken(1L, "alice");
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.getKeys().add(hmacKey("k1", "anotherSecretKeyForTestingPurposesOnly32Bytes"));
+        properties.setActiveKid("k1");
+        properties.setAcceptLegacy(false);
+        JwtUtil withoutLegacy = jwtUtil(properties);
+
+        assertThat(withoutLegacy.parseClaims(legacyToken)).isEmpty();
+        assertThat(withoutLegacy.extractId(withoutLegacy.generateAccessToken(2L, "bob"))).isEqualTo(2L);
+    }
+
+    @Test
+    void acceptLegacyDisabledWithoutActiveKid_failsFast() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAcceptLegacy(false);
+
+        assertThatThrownBy(() -> new JwtKeyRing(SECRET, properties))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void parseClaims_unknownKid_rejected() {
+        JwtSigningProperties signer = new JwtSigningProperties();
+        signer.getKeys().add(asymmetricKey("old", "ES256", generate("EC")));
+        signer.setActiveKid("old");
+        String token = jwtUtil(signer).generateAccessToken(1L, "alice");
+
+        assertThat(jwtUtil(new JwtSigningProperties()).parseClaims(token)).isEmpty();
+    }
+
+    @Test
+    void publicJwks_exposesOnlyAsymmetricKeys() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.getKeys().add(hmacKey("hs", "anotherSecretKeyForTestingPurposesOnly32Bytes"));
+        properties.getKeys().add(asymmetricKey("es", "ES256", generate("EC")));
+        properties.getKeys().add(asymmetricKey("ed", "EdDSA", generate("Ed25519")));
+
+        List<Map<String, Object>> jwks = new JwtKeyRing(SECRET, properties).publicJwks();
+
+        assertThat(jwks).extracting(jwk -> jwk.get("kid")).containsExactly("es", "ed");
+        assertThat(jwks.get(0)).containsEntry("kty", "EC").containsEntry("crv", "P-256").containsKeys("x", "y");
+        assertThat(jwks.get(1)).containsEntry("kty", "OKP").containsEntry("crv", "Ed25519").containsKey("x");
+        assertThat(Base64.getUrlDecoder().decode((String) jwks.get(1).get("x"))).hasSize(32);
+    }
+
+    @Test
+    void activeKidWithoutPrivateKey_failsFast() {
+        JwtSigningProperties.Key verifyOnly = asymmetricKey("ed", "EdDSA", generate("Ed25519"));
+        verifyOnly.setPrivateKey(null);
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.getKeys().add(verifyOnly);
+        properties.setActiveKid("ed");
+
+        assertThatThrownBy(() -> new JwtKeyRing(SECRET, properties))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static KeyPair generate(String algorithm) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+            if ("EC".equals(algorithm)) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
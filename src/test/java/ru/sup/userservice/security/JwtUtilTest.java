@@ -2,42 +2,33 @@ package ru.sup.userservice.security;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import ru.sup.userservice.repository.UserRepository;
+import ru.sup.userservice.config.JwtSigningProperties;
+import ru.sup.userservice.security.jwt.JwtClaimsCache;
+import ru.sup.userservice.security.jwt.JwtKeyRing;
 import ru.sup.userservice.security.jwt.JwtUtil;
-
-import java.util.Optional;
+import ru.sup.userservice.security.jwt.TokenPair;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
 class JwtUtilTest {
 
     private static final String SECRET = "testSecretKeyForTestingPurposesOnlyMustBe32BytesLong";
     private static final long ACCESS_EXPIRATION_MS = 900_000L;  // 15 min
     private static final long REFRESH_EXPIRATION_MS = 2_592_000_000L; // 30 days
 
-    @Mock
-    private UserRepository userRepository;
-
     private JwtUtil jwtUtil;
 
-    private ru.sup.userservice.entity.User testUser;
     private UserDetails userDetails;
 
+    private static JwtKeyRing keyRing() {
+        return new JwtKeyRing(SECRET, new JwtSigningProperties());
+    }
+
     @BeforeEach
     void setUp() {
-        jwtUtil = new JwtUtil(SECRET, ACCESS_EXPIRATION_MS, REFRESH_EXPIRATION_MS, userRepository);
-
-        testUser = new ru.sup.userservice.entity.User();
-        testUser.setId(42L);
-        testUser.setUsername("alice");
-        testUser.setPassword("$2a$encoded");
+        jwtUtil = new JwtUtil(keyRing(), ACCESS_EXPIRATION_MS, REFRESH_EXPIRATION_MS, new JwtClaimsCache(100));
 
         userDetails = User.withUsername("alice")
                 .password("$2a$encoded")
@@ -48,63 +39,48 @@ class JwtUtilTest {
     // ======================== GENERATE ACCESS TOKEN ========================
 
     @Test
-    void generateAccessToken_userExists_returnsNonNullToken() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
-
-        String token = jwtUtil.generateAccessToken(userDetails);
+    void generateAccessToken_returnsNonNullToken() {
+        String token = jwtUtil.generateAccessToken(42L, "alice");
 
         assertThat(token).isNotNull();
         assertThat(token.split("\\.")).hasSize(3); // JWT has 3 parts
     }
 
-    @Test
-    void generateAccessToken_userNotFound_returnsNull() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.empty());
-
-        String token = jwtUtil.generateAccessToken(userDetails);
-
-        assertThat(token).isNull();
-    }
+    // ======================== GENERATE REFRESH TOKEN ========================
 
     @Test
-    void generateAccessToken_withAvatarUrl_embedsAvatarClaim() {
-        testUser.setAvatarURL("https://cdn.example.com/avatar.jpg");
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
-
-        String token = jwtUtil.generateAccessToken(userDetails);
+    void generateRefreshToken_returnsNonNullToken() {
+        String token = jwtUtil.generateRefreshToken(42L, "alice");
 
         assertThat(token).isNotNull();
-        // avatarURL claim is embedded — verify by extracting claims via extractUsername (token is valid)
-        assertThat(jwtUtil.extractUsername(token)).isEqualTo("alice");
+        assertThat(token.split("\\.")).hasSize(3);
     }
 
-    // ======================== GENERATE REFRESH TOKEN ========================
-
     @Test
-    void generateRefreshToken_userExists_returnsNonNullToken() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
+    void generateRefreshToken_sameSecond_tokensDiffer() {
+        String first = jwtUtil.generateRefreshToken(42L, "alice");
+        String second = jwtUtil.generateRefreshToken(42L, "alice");
 
-        String token = jwtUtil.generateRefreshToken(userDetails);
-
-        assertThat(token).isNotNull();
-        assertThat(token.split("\\.")).hasSize(3);
+        assertThat(first).isNotEqualTo(second);
     }
 
-    @Test
-    void generateRefreshToken_userNotFound_returnsNull() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.empty());
+    // ======================== GENERATE TOKEN PAIR ========================
 
-        String token = jwtUtil.generateRefreshToken(userDetails);
+    @Test
+    void generateTokenPair_returnsDistinctValidTokens() {
+        TokenPair pair = jwtUtil.generateTokenPair(42L, "alice");
 
-        assertThat(token).isNull();
+        assertThat(pair.accessToken()).isNotEqualTo(pair.refreshToken());
+        assertThat(jwtUtil.extractId(pair.accessToken())).isEqualTo(42L);
+        assertThat(jwtUtil.extractId(pair.refreshToken())).isEqualTo(42L);
+        assertThat(jwtUtil.extractUsername(pair.refreshToken())).isEqualTo("alice");
     }
 
     // ======================== EXTRACT USERNAME ========================
 
     @Test
     void extractUsername_validToken_returnsCorrectUsername() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
-        String token = jwtUtil.generateAccessToken(userDetails);
+        String token = jwtUtil.generateAccessToken(42L, "alice");
 
         String username = jwtUtil.extractUsername(token);
 
@@ -115,8 +91,7 @@ class JwtUtilTest {
 
     @Test
     void extractId_validToken_returnsCorrectId() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
-        String token = jwtUtil.generateAccessToken(userDetails);
+        String token = jwtUtil.generateAccessToken(42L, "alice");
 
         Long id = jwtUtil.extractId(token);
 
@@ -127,8 +102,7 @@ class JwtUtilTest {
 
     @Test
     void validateToken_validToken_returnsTrue() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
-        String token = jwtUtil.generateAccessToken(userDetails);
+        String token = jwtUtil.generateAccessToken(42L, "alice");
 
         boolean valid = jwtUtil.validateToken(token, userDetails);
 
@@ -137,8 +111,7 @@ class JwtUtilTest {
 
     @Test
     void validateToken_wrongUser_returnsFalse() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
-        String token = jwtUtil.generateAccessToken(userDetails);
+        String token = jwtUtil.generateAccessToken(42L, "alice");
 
         UserDetails otherUser = User.withUsername("bob")
                 .password("$2a$encoded")
@@ -152,8 +125,7 @@ class JwtUtilTest {
 
     @Test
     void validateToken_tamperedToken_returnsFalse() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
-        String token = jwtUtil.generateAccessToken(userDetails);
+        String token = jwtUtil.generateAccessToken(42L, "alice");
         String tampered = token + "tampered";
 
         boolean valid = jwtUtil.validateToken(tampered, userDetails);
@@ -164,10 +136,9 @@ class JwtUtilTest {
     @Test
     void validateToken_expiredToken_returnsFalse() {
         // Create JwtUtil with 1ms expiration
-        JwtUtil shortLivedJwtUtil = new JwtUtil(SECRET, 1L, 1L, userRepository);
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
+        JwtUtil shortLivedJwtUtil = new JwtUtil(keyRing(), 1L, 1L, new JwtClaimsCache(100));
 
-        String token = shortLivedJwtUtil.generateAccessToken(userDetails);
+        String token = shortLivedJwtUtil.generateAccessToken(42L, "alice");
 
         // Wait for expiration
         try { Thread.sleep(10); } catch (InterruptedException ignored) {}
@@ -178,10 +149,27 @@ class JwtUtilTest {
     }
 
     @Test
-    void refreshToken_doesNotContainAvatarClaim() {
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(testUser));
+    void parseClaims_validToken_returnsSubjectAndUserId() {
+        String token = jwtUtil.generateAccessToken(42L, "alice");
 
-        String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+        var claims = jwtUtil.parseClaims(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("alice");
+        assertThat(claims.get().get("userId", Long.class)).isEqualTo(42L);
+    }
+
+    @Test
+    void parseClaims_tamperedToken_returnsEmpty() {
+        String token = jwtUtil.generateAccessToken(42L, "alice");
+
+        assertThat(jwtUtil.parseClaims(token + "tampered")).isEmpty();
+        assertThat(jwtUtil.parseClaims("not-a-jwt")).isEmpty();
+    }
+
+    @Test
+    void refreshToken_doesNotContainAvatarClaim() {
+        String refreshToken = jwtUtil.generateRefreshToken(42L, "alice");
 
         // Refresh token should still be valid and have correct username/userId
         assertThat(jwtUtil.extractUsername(refreshToken)).isEqualTo("alice");
@@ -0,0 +1,90 @@
+package ru.sup.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.sup.userservice.config.PasswordHashingProperties;
+import ru.sup.userservice.exception.ServiceOverloadedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordHashingExecutor executor;
+
+    private PasswordHashingExecutor executor(int threads, int queueCapacity) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setRetryAfterSeconds(3);
+        executor = new PasswordHashingExecutor(properties, registry);
+        return executor;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void encode_returnsResultAndRecordsTimer() {
+        PasswordHashingExecutor executor = executor(1, 1);
+
+        assertThat(executor.encode(() -> "hash")).isEqualTo("hash");
+        assertThat(executor.matches(() -> true)).isTrue();
+        assertThat(registry.get("password.hash.duration").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void encode_queueFull_rejectsWithRetryAfter() throws Exception {
+        PasswordHashingExecutor executor = executor(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Первая задача занимает единственный поток, вторая — единственное место в очереди
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.encode(() -> {
+            started.countDown();
+            await(release);
+            return "first";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.encode(() -> "second"));
+        while (registry.get("password.hash.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> executor.encode(() -> "third"))
+                .isInstanceOfSatisfying(ServiceOverloadedException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+        assertThat(registry.get("password.hash.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+    }
+
+    @Test
+    void matches_taskFailure_propagatesOriginalException() {
+        PasswordHashingExecutor executor = executor(1, 1);
+
+        assertThatThrownBy(() -> executor.matches(() -> {
+            throw new IllegalArgumentException("bad hash");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad hash");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ru.sup.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import ru.sup.userservice.config.RateLimitProperties;
+import ru.sup.userservice.exception.RateLimitExceededException;
+import ru.sup.userservice.security.ratelimit.LocalSlidingWindowStore;
+import ru.sup.userservice.security.ratelimit.RateLimitedAction;
+import ru.sup.userservice.security.ratelimit.RateLimiter;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimiterTest {
+
+    private static RateLimitProperties properties(int perIp, int perUsername) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setLogin(new RateLimitProperties.Limit(perIp, perUsername, Duration.ofMinutes(1)));
+        return properties;
+    }
+
+    @Test
+    void check_rejectsUsernameOverLimit_regardlessOfCaseAndIp() {
+        RateLimiter limiter = new RateLimiter(properties(100, 2), mock(StringRedisTemplate.class));
+
+        limiter.check(RateLimitedAction.LOGIN, "10.0.0.1", "alice");
+        limiter.check(RateLimitedAction.LOGIN, "10.0.0.2", "Alice");
+
+        assertThatThrownBy(() -> limiter.check(RateLimitedAction.LOGIN, "10.0.0.3", "alice"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .satisfies(e -> assertThat(((RateLimitExceededException) e).getRetryAfterSeconds()).isPositive());
+        assertThatCode(() -> limiter.check(RateLimitedAction.LOGIN, "10.0.0.3", "bob"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void check_loginAttemptsFromOneIp_doNotLockOutOwnerElsewhere() {
+        RateLimiter limiter = new RateLimiter(new RateLimitProperties(), mock(StringRedisTemplate.class));
+        int perIpUsername = new RateLimitProperties().getLogin().getPerIpUsername();
+
+        for (int i = 0; i < perIpUsername; i++) {
+            limiter.check(RateLimitedAction.LOGIN, "203.0.113.66", "alice");
+        }
+
+        assertThatThrownBy(() -> limiter.check(RateLimitedAction.LOGIN, "203.0.113.66", "alice"))
+                .isInstanceOf(RateLimitExceededException.class);
+        assertThatCode(() -> limiter.check(RateLimitedAction.LOGIN, "10.0.0.1", "alice"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void check_rejectsIpOverLimit() {
+        RateLimiter limiter = new RateLimiter(properties(2, 0), mock(StringRedisTemplate.class));
+
+        limiter.check(RateLimitedAction.LOGIN, "10.0.0.1", "alice");
+        limiter.check(RateLimitedAction.LOGIN, "10.0.0.1", "bob");
+
+        assertThatThrownBy(() -> limiter.check(RateLimitedAction.LOGIN, "10.0.0.1", "carol"))
+                .isInstanceOf(RateLimitExceededException.class);
+        assertThatCode(() -> limiter.check(RateLimitedAction.LOGIN, "10.0.0.2", "carol"))
+                .doesNotThrowAnyException();
+        // Лимиты разных эндпоинтов независимы
+        assertThatCode(() -> limiter.check(RateLimitedAction.REGISTER, "10.0.0.1", "dave"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void check_disabled_neverRejects() {
+        RateLimitProperties properties = properties(1, 1);
+        properties.setEnabled(false);
+        RateLimiter limiter = new RateLimiter(properties, mock(StringRedisTemplate.class));
+
+        for (int i = 0; i < 10; i++) {
+            limiter.check(RateLimitedAction.LOGIN, "10.0.0.1", "alice");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void check_redisUnavailable_fallsBackToLocalCounters() {
+        RateLimitProperties properties = properties(0, 1);
+        properties.setMode(RateLimitProperties.Mode.REDIS);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        RateLimiter limiter = new RateLimiter(properties, redisTemplate);
+
+        limiter.check(RateLimitedAction.LOGIN, "10.0.0.1", "alice");
+
+        assertThatThrownBy(() -> limiter.check(RateLimitedAction.LOGIN, "10.0.0.1", "alice"))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void slidingWindow_previousWindowWeightDecays() {
+        LocalSlidingWindowStore store = new LocalSlidingWindowStore(100);
+        long window = 60_000;
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(store.tryAcquire("k", 10, window, i)).isZero();
+        }
+        assertThat(store.tryAcquire("k", 10, window, 30_000)).isPositive();
+
+        // В начале следующего окна предыдущее весит целиком
+        assertThat(store.tryAcquire("k", 10, window, window)).isPositive();
+        // К середине окна вес предыдущего — половина: 10 × 0.5 = 5 < 10
+        assertThat(store.tryAcquire("k", 10, window, window + 30_000)).isZero();
+    }
+}
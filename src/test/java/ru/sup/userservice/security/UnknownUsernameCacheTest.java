@@ -0,0 +1,45 @@
+package ru.sup.userservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UnknownUsernameCacheTest {
+
+    @Test
+    void markUnknown_thenInvalidate_forgetsUsername() {
+        UnknownUsernameCache cache = new UnknownUsernameCache(Duration.ofMinutes(1), 100);
+
+        cache.markUnknown("ghost");
+        assertThat(cache.isUnknown("ghost")).isTrue();
+        assertThat(cache.isUnknown("alice")).isFalse();
+
+        cache.invalidate("ghost");
+        assertThat(cache.isUnknown("ghost")).isFalse();
+    }
+
+    @Test
+    void isUnknown_afterTtl_expires() throws InterruptedException {
+        UnknownUsernameCache cache = new UnknownUsernameCache(Duration.ofMillis(20), 100);
+
+        cache.markUnknown("ghost");
+        Thread.sleep(40);
+
+        assertThat(cache.isUnknown("ghost")).isFalse();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void markUnknown_boundedBySize() {
+        UnknownUsernameCache cache = new UnknownUsernameCache(Duration.ofMinutes(1), 8);
+
+        for (int i = 0; i < 100; i++) {
+            cache.markUnknown("user" + i);
+        }
+
+        assertThat(cache.size()).isEqualTo(8);
+        assertThat(cache.isUnknown("user99")).isTrue();
+    }
+}
@@ -0,0 +1,96 @@
+package ru.sup.userservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.sup.userservice.data.FriendshipStatus;
+import ru.sup.userservice.repository.FriendshipRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FriendshipCacheTest {
+
+    @Mock private FriendshipRepository friendshipRepository;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private FriendshipCache friendshipCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager();
+        friendshipCache = new FriendshipCache(cacheManager, friendshipRepository);
+    }
+
+    private void put(String cacheName, Object key) {
+        cacheManager.getCache(cacheName).put(key, "cached");
+    }
+
+    private boolean cached(String cacheName, Object key) {
+        return cacheManager.getCache(cacheName).get(key) != null;
+    }
+
+    @Test
+    void pairKey_doesNotDependOnOrder() {
+        assertThat(FriendshipCache.pairKey(2L, 10L)).isEqualTo("2_10");
+        assertThat(FriendshipCache.pairKey(10L, 2L)).isEqualTo("2_10");
+    }
+
+    @Test
+    void onTransition_toAccepted_evictsBothUsersAndPair() {
+        put(FriendshipCache.FRIENDS_LIST, 1L);
+        put(FriendshipCache.FRIENDS_LIST, 2L);
+        put(FriendshipCache.FRIENDS_COUNT, 1L);
+        put(FriendshipCache.FRIENDS_COUNT, 2L);
+        put(FriendshipCache.FRIENDSHIP_CHECK, "1_2");
+        put(FriendshipCache.FRIENDS_COUNT, 3L);
+
+        friendshipCache.onTransition(2L, 1L, FriendshipStatus.PENDING, FriendshipStatus.ACCEPTED);
+
+        assertThat(cached(FriendshipCache.FRIENDS_LIST, 1L)).isFalse();
+        assertThat(cached(FriendshipCache.FRIENDS_LIST, 2L)).isFalse();
+        assertThat(cached(FriendshipCache.FRIENDS_COUNT, 1L)).isFalse();
+        assertThat(cached(FriendshipCache.FRIENDS_COUNT, 2L)).isFalse();
+        assertThat(cached(FriendshipCache.FRIENDSHIP_CHECK, "1_2")).isFalse();
+        assertThat(cached(FriendshipCache.FRIENDS_COUNT, 3L)).isTrue();
+    }
+
+    @Test
+    void onTransition_fromAccepted_evictsPair() {
+        put(FriendshipCache.FRIENDSHIP_CHECK, "1_2");
+
+        friendshipCache.onTransition(1L, 2L, FriendshipStatus.ACCEPTED, FriendshipStatus.BLOCKED);
+
+        assertThat(cached(FriendshipCache.FRIENDSHIP_CHECK, "1_2")).isFalse();
+    }
+
+    @Test
+    void onTransition_withoutAccepted_keepsEntries() {
+        put(FriendshipCache.FRIENDS_LIST, 1L);
+        put(FriendshipCache.FRIENDSHIP_CHECK, "1_2");
+
+        friendshipCache.onTransition(1L, 2L, FriendshipStatus.PENDING, FriendshipStatus.REJECTED);
+        friendshipCache.onTransition(1L, 2L, FriendshipStatus.BLOCKED, null);
+
+        assertThat(cached(FriendshipCache.FRIENDS_LIST, 1L)).isTrue();
+        assertThat(cached(FriendshipCache.FRIENDSHIP_CHECK, "1_2")).isTrue();
+    }
+
+    @Test
+    void onProfileChanged_evictsFriendsListsOfFriends() {
+        put(FriendshipCache.FRIENDS_LIST, 5L);
+        put(FriendshipCache.FRIENDS_LIST, 6L);
+        when(friendshipRepository.findAcceptedFriendIds(1L)).thenReturn(List.of(5L));
+
+        friendshipCache.onProfileChanged(1L);
+
+        assertThat(cached(FriendshipCache.FRIENDS_LIST, 5L)).isFalse();
+        assertThat(cached(FriendshipCache.FRIENDS_LIST, 6L)).isTrue();
+    }
+}
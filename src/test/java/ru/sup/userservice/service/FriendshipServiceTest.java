@@ -35,6 +35,7 @@ class FriendshipServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private FriendshipEventProducer friendshipEventProducer;
     @Mock private NotificationGrpcClient notificationGrpcClient;
+    @Mock private FriendshipCache friendshipCache;
 
     @InjectMocks
     private FriendshipService friendshipService;
@@ -164,6 +165,7 @@ class FriendshipServiceTest {
 
         assertThat(result.status()).isEqualTo(FriendshipStatus.ACCEPTED);
         verify(friendshipEventProducer).sendFriendRequestAccepted(2L, 1L);
+        verify(friendshipCache).onTransition(1L, 2L, FriendshipStatus.PENDING, FriendshipStatus.ACCEPTED);
     }
 
     @Test
@@ -250,6 +252,7 @@ class FriendshipServiceTest {
 
         verify(friendshipRepository).delete(accepted);
         verify(friendshipEventProducer, times(2)).sendFriendRemoved(anyLong(), anyLong());
+        verify(friendshipCache).onTransition(1L, 2L, FriendshipStatus.ACCEPTED, null);
     }
 
     @Test
@@ -291,6 +294,7 @@ class FriendshipServiceTest {
 
         assertThat(existing.getStatus()).isEqualTo(FriendshipStatus.BLOCKED);
         verify(friendshipRepository).save(existing);
+        verify(friendshipCache).onTransition(1L, 2L, FriendshipStatus.ACCEPTED, FriendshipStatus.BLOCKED);
     }
 
     // ======================== UNBLOCK USER ========================
@@ -306,6 +310,7 @@ class FriendshipServiceTest {
         friendshipService.unblockUser(1L, 2L);
 
         verify(friendshipRepository).delete(blocked);
+        verify(friendshipCache).onTransition(1L, 2L, FriendshipStatus.BLOCKED, null);
     }
 
     @Test
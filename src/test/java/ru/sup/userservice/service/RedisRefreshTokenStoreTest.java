@@ -0,0 +1,94 @@
+package ru.sup.userservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisRefreshTokenStoreTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ValueOperations<String, String> valueOps;
+    @Mock private SetOperations<String, String> setOps;
+
+    @InjectMocks
+    private RedisRefreshTokenStore store;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void save_writesTokenAndUserIndexInOneScript() {
+        Instant expiry = Instant.now().plusSeconds(3600);
+
+        store.save(1L, "alice", "refresh.token", expiry);
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(any(RedisScript.class), keys.capture(),
+                eq("1:" + expiry.toEpochMilli() + ":alice"),
+                argThat(ttlMs -> {
+                    long millis = Long.parseLong((String) ttlMs);
+                    return millis > 0 && millis <= Duration.ofSeconds(3600).toMillis();
+                }),
+                anyString());
+        assertThat(keys.getValue().get(0)).startsWith("user-service:refresh:").doesNotContain("refresh.token");
+        assertThat(keys.getValue().get(1)).isEqualTo("user-service:refresh:user:1");
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    void save_alreadyExpired_isSkipped() {
+        store.save(1L, "alice", "refresh.token", Instant.now().minusSeconds(1));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void findByToken_parsesStoredValue() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(startsWith("user-service:refresh:"))).thenReturn("1:1700000000000:alice:with:colons");
+
+        Optional<StoredRefreshToken> found = store.findByToken("refresh.token");
+
+        assertThat(found).contains(new StoredRefreshToken(
+                1L, "alice:with:colons", Instant.ofEpochMilli(1700000000000L), false));
+    }
+
+    @Test
+    void findByToken_missingKey_returnsEmpty() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(anyString())).thenReturn(null);
+
+        assertThat(store.findByToken("refresh.token")).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revokeAllByUser_deletesTokensAndUserSet() {
+        when(redisTemplate.opsForSet()).thenReturn(setOps);
+        when(setOps.members("user-service:refresh:user:1")).thenReturn(Set.of("d1", "d2"));
+
+        store.revokeAllByUser(1L);
+
+        ArgumentCaptor<Collection<String>> keys = ArgumentCaptor.forClass(Collection.class);
+        verify(redisTemplate).delete(keys.capture());
+        assertThat(keys.getValue()).containsExactlyInAnyOrder(
+                "user-service:refresh:d1", "user-service:refresh:d2", "user-service:refresh:user:1");
+    }
+}
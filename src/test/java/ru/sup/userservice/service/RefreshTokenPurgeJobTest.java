@@ -0,0 +1,67 @@
+package ru.sup.userservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.sup.userservice.config.RefreshTokenPurgeProperties;
+import ru.sup.userservice.repository.RefreshTokenRepository;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenPurgeJobTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RefreshTokenPurgeProperties properties;
+    private RefreshTokenPurgeJob job;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RefreshTokenPurgeProperties();
+        properties.setBatchSize(100);
+        properties.setPauseBetweenBatches(Duration.ZERO);
+        properties.setMaxBatchesPerRun(10);
+        job = new RefreshTokenPurgeJob(refreshTokenRepository, properties, registry);
+    }
+
+    @Test
+    void purge_deletesBatchesUntilPartialBatch() {
+        when(refreshTokenRepository.deleteExpiredOrRevokedBatch(any(), eq(100)))
+                .thenReturn(100, 100, 42);
+
+        job.purge();
+
+        verify(refreshTokenRepository, times(3)).deleteExpiredOrRevokedBatch(any(), eq(100));
+        assertThat(registry.get("refresh.token.purged").counter().count()).isEqualTo(242);
+    }
+
+    @Test
+    void purge_stopsAtMaxBatchesPerRun() {
+        properties.setMaxBatchesPerRun(2);
+        when(refreshTokenRepository.deleteExpiredOrRevokedBatch(any(), eq(100))).thenReturn(100);
+
+        job.purge();
+
+        verify(refreshTokenRepository, times(2)).deleteExpiredOrRevokedBatch(any(), eq(100));
+    }
+
+    @Test
+    void purge_nothingToDelete_singleQuery() {
+        when(refreshTokenRepository.deleteExpiredOrRevokedBatch(any(), eq(100))).thenReturn(0);
+
+        job.purge();
+
+        verify(refreshTokenRepository, times(1)).deleteExpiredOrRevokedBatch(any(), eq(100));
+    }
+}
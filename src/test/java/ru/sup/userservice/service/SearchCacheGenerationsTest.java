@@ -0,0 +1,68 @@
+package ru.sup.userservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchCacheGenerationsTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchCacheGenerations generations;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        generations = new SearchCacheGenerations(redisTemplate, meterRegistry, Duration.ofSeconds(10), 1000);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void key_normalizesPrefixAndIncludesItsGeneration() {
+        when(valueOperations.get("user-service:search-gen:al")).thenReturn("3");
+
+        assertThat(generations.key("  Al ", 0, 20, "bob")).isEqualTo("al:3:0:20:bob");
+        assertThat(generations.key("al", 1, 20, "bob")).isEqualTo("al:3:1:20:bob");
+
+        // Поколение берётся из локального кэша
+        verify(valueOperations, times(1)).get("user-service:search-gen:al");
+    }
+
+    @Test
+    void invalidate_bumpsEveryPrefixAndDropsLocalGeneration() {
+        when(valueOperations.get("user-service:search-gen:al")).thenReturn("0", "1");
+        assertThat(generations.key("al", 0, 20, "bob")).isEqualTo("al:0:0:20:bob");
+
+        generations.invalidate("Alice", null);
+
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        assertThat(meterRegistry.get("user.search.cache.generation.bumps").counter().count()).isEqualTo(5.0);
+        assertThat(generations.key("al", 0, 20, "bob")).isEqualTo("al:1:0:20:bob");
+    }
+
+    @Test
+    void key_longQuery_usesGenerationOfBoundedPrefix() {
+        String query = "a".repeat(SearchCacheGenerations.MAX_PREFIX_LENGTH + 8);
+        when(valueOperations.get("user-service:search-gen:" + "a".repeat(SearchCacheGenerations.MAX_PREFIX_LENGTH)))
+                .thenReturn("7");
+
+        assertThat(generations.key(query, 0, 20, "bob")).isEqualTo(query + ":7:0:20:bob");
+    }
+}
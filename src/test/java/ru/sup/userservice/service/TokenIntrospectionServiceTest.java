@@ -0,0 +1,75 @@
+package ru.sup.userservice.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.sup.userservice.dto.response.TokenIntrospectionResponse;
+import ru.sup.userservice.security.jwt.AccessTokenDenylist;
+import ru.sup.userservice.security.jwt.JwtUtil;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenIntrospectionServiceTest {
+
+    @Mock private JwtUtil jwtUtil;
+    @Mock private AccessTokenDenylist accessTokenDenylist;
+
+    private TokenIntrospectionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenIntrospectionService(jwtUtil, accessTokenDenylist, 3);
+    }
+
+    private static Claims claims(Long userId, String username, Date expiration) {
+        return Jwts.claims()
+                .subject(username)
+                .add("userId", userId)
+                .issuedAt(new Date())
+                .expiration(expiration)
+                .build();
+    }
+
+    @Test
+    void introspect_mixedBatch_keepsOrder() {
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+        when(jwtUtil.parseClaims("valid")).thenReturn(Optional.of(claims(1L, "alice", expiration)));
+        when(jwtUtil.parseClaims("invalid")).thenReturn(Optional.empty());
+        when(accessTokenDenylist.isRevoked(eq(1L), any())).thenReturn(false);
+
+        List<TokenIntrospectionResponse> results = service.introspect(Arrays.asList("invalid", "valid", null));
+
+        assertThat(results).extracting(TokenIntrospectionResponse::isActive).containsExactly(false, true, false);
+        assertThat(results.get(1).getUserId()).isEqualTo(1L);
+        assertThat(results.get(1).getUsername()).isEqualTo("alice");
+        assertThat(results.get(1).getExpiresAt()).isEqualTo(expiration.getTime());
+    }
+
+    @Test
+    void introspect_revokedToken_isInactive() {
+        when(jwtUtil.parseClaims("revoked"))
+                .thenReturn(Optional.of(claims(1L, "alice", new Date(System.currentTimeMillis() + 60_000))));
+        when(accessTokenDenylist.isRevoked(eq(1L), any())).thenReturn(true);
+
+        assertThat(service.introspect(List.of("revoked")).get(0).isActive()).isFalse();
+    }
+
+    @Test
+    void introspect_batchAboveLimit_rejected() {
+        assertThatThrownBy(() -> service.introspect(List.of("a", "b", "c", "d")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jwtUtil);
+    }
+}
@@ -9,21 +9,24 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 import ru.sup.userservice.dto.UserDto;
 import ru.sup.userservice.dto.request.LoginRequest;
 import ru.sup.userservice.dto.request.RegisterRequest;
 import ru.sup.userservice.dto.response.AuthResponse;
-import ru.sup.userservice.entity.RefreshToken;
 import ru.sup.userservice.entity.User;
 import ru.sup.userservice.entity.VerificationCode;
 import ru.sup.userservice.kafka.EmailEventProducer;
+import ru.sup.userservice.kafka.UserEventProducer;
 import ru.sup.userservice.repository.FriendshipRepository;
-import ru.sup.userservice.repository.RefreshTokenRepository;
 import ru.sup.userservice.repository.UserRepository;
 import ru.sup.userservice.repository.VerificationCodeRepository;
+import ru.sup.userservice.security.UnknownUsernameCache;
+import ru.sup.userservice.security.jwt.AccessTokenDenylist;
 import ru.sup.userservice.security.jwt.JwtUtil;
+import ru.sup.userservice.security.jwt.TokenPair;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -39,10 +42,15 @@ class UserServiceTest {
     @Mock private AuthenticationManager authManager;
     @Mock private UserRepository userRepository;
     @Mock private FriendshipRepository friendshipRepository;
-    @Mock private RefreshTokenRepository refreshTokenRepository;
+    @Mock private RefreshTokenStore refreshTokenStore;
     @Mock private VerificationCodeRepository verificationCodeRepository;
     @Mock private JwtUtil jwtUtil;
+    @Mock private AccessTokenDenylist accessTokenDenylist;
     @Mock private EmailEventProducer emailEventProducer;
+    @Mock private UserEventProducer userEventProducer;
+    @Mock private UnknownUsernameCache unknownUsernames;
+    @Mock private SearchCacheGenerations searchCacheGenerations;
+    @Mock private FriendshipCache friendshipCache;
 
     @InjectMocks
     private UserService userService;
@@ -67,16 +75,16 @@ class UserServiceTest {
             u.setId(1L);
             return u;
         });
-        when(jwtUtil.generateAccessToken(any())).thenReturn("access.token");
-        when(jwtUtil.generateRefreshToken(any())).thenReturn("refresh.token");
-        when(refreshTokenRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(jwtUtil.generateTokenPair(1L, "alice")).thenReturn(new TokenPair("access.token", "refresh.token"));
 
         AuthResponse response = userService.register(request);
 
         assertThat(response.getAccessToken()).isEqualTo("access.token");
         assertThat(response.getRefreshToken()).isEqualTo("refresh.token");
         verify(userRepository).save(any(User.class));
-        verify(refreshTokenRepository).save(any(RefreshToken.class));
+        verify(refreshTokenStore).save(eq(1L), eq("alice"), eq("refresh.token"), any(Instant.class));
+        verify(unknownUsernames).invalidate("alice");
+        verify(userEventProducer).sendUserCreated(1L, "alice");
     }
 
     @Test
@@ -97,7 +105,7 @@ class UserServiceTest {
     // ======================== LOGIN ========================
 
     @Test
-    void login_success_returnsAuthResponse() {
+    void login_success_issuesNewRefreshTokenKeepingOtherSessions() {
         LoginRequest request = new LoginRequest();
         request.setUsername("alice");
         request.setPassword("pass123");
@@ -107,26 +115,21 @@ class UserServiceTest {
         user.setUsername("alice");
         user.setPassword("$2a$encoded");
 
-        RefreshToken storedToken = RefreshToken.builder()
-                .token("stored.refresh")
-                .user(user)
-                .expiryDate(Instant.now().plusSeconds(3600))
-                .revoked(false)
-                .build();
-
         when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
-        when(jwtUtil.generateAccessToken(any())).thenReturn("new.access.token");
-        when(refreshTokenRepository.findByUserAndRevokedFalse(user)).thenReturn(Optional.of(storedToken));
+        when(jwtUtil.generateAccessToken(any(), any())).thenReturn("new.access.token");
+        when(jwtUtil.generateRefreshToken(any(), any())).thenReturn("new.refresh");
 
         AuthResponse response = userService.login(request);
 
         assertThat(response.getAccessToken()).isEqualTo("new.access.token");
-        assertThat(response.getRefreshToken()).isEqualTo("stored.refresh");
+        assertThat(response.getRefreshToken()).isEqualTo("new.refresh");
         verify(authManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(refreshTokenStore, never()).revokeAllByUser(any());
+        verify(refreshTokenStore).save(eq(1L), eq("alice"), eq("new.refresh"), any(Instant.class));
     }
 
     @Test
-    void login_invalidCredentials_throwsRuntimeException() {
+    void login_invalidCredentials_propagatesAuthenticationException() {
         LoginRequest request = new LoginRequest();
         request.setUsername("alice");
         request.setPassword("wrong");
@@ -135,44 +138,19 @@ class UserServiceTest {
                 .when(authManager).authenticate(any());
 
         assertThatThrownBy(() -> userService.login(request))
-                .isInstanceOf(RuntimeException.class);
+                .isInstanceOf(BadCredentialsException.class);
     }
 
     @Test
-    void login_expiredRefreshToken_createsNewRefreshToken() {
+    void login_userDeletedAfterAuthentication_throwsUsernameNotFound() {
         LoginRequest request = new LoginRequest();
         request.setUsername("alice");
-        request.setPassword("pass");
-
-        User user = new User();
-        user.setId(1L);
-        user.setUsername("alice");
-        user.setPassword("$2a$encoded");
-
-        RefreshToken expiredToken = RefreshToken.builder()
-                .token("expired.refresh")
-                .user(user)
-                .expiryDate(Instant.now().minusSeconds(3600))
-                .revoked(false)
-                .build();
-
-        RefreshToken newToken = RefreshToken.builder()
-                .token("new.refresh")
-                .user(user)
-                .expiryDate(Instant.now().plusSeconds(3600))
-                .revoked(false)
-                .build();
-
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
-        when(jwtUtil.generateAccessToken(any())).thenReturn("access.token");
-        when(jwtUtil.generateRefreshToken(any())).thenReturn("new.refresh");
-        when(refreshTokenRepository.findByUserAndRevokedFalse(user)).thenReturn(Optional.of(expiredToken));
-        when(refreshTokenRepository.save(any())).thenReturn(newToken);
+        request.setPassword("pass123");
 
-        AuthResponse response = userService.login(request);
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.empty());
 
-        assertThat(response.getRefreshToken()).isEqualTo("new.refresh");
-        verify(refreshTokenRepository, times(2)).save(any()); // revoke + new
+        assertThatThrownBy(() -> userService.login(request))
+                .isInstanceOf(UsernameNotFoundException.class);
     }
 
     // ======================== UPDATE ========================
@@ -188,19 +166,19 @@ class UserServiceTest {
         newData.setUsername("alice_new");
 
         when(userRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(jwtUtil.generateAccessToken(any())).thenReturn("new.access");
-        when(jwtUtil.generateRefreshToken(any())).thenReturn("new.refresh");
-        when(refreshTokenRepository.save(any())).thenAnswer(inv -> {
-            RefreshToken rt = inv.getArgument(0);
-            if (rt.getToken() == null) rt = RefreshToken.builder().token("new.refresh").user(user).expiryDate(Instant.now().plusSeconds(3600)).revoked(false).build();
-            return rt;
-        });
+        when(jwtUtil.generateAccessToken(any(), any())).thenReturn("new.access");
+        when(jwtUtil.generateRefreshToken(any(), any())).thenReturn("new.refresh");
 
         AuthResponse response = userService.update(user, newData);
 
         assertThat(user.getUsername()).isEqualTo("alice_new");
         assertThat(response.getAccessToken()).isEqualTo("new.access");
-        verify(refreshTokenRepository).revokeAllByUser(user);
+        verify(refreshTokenStore).revokeAllByUser(1L);
+        verify(accessTokenDenylist).revokeAllForUser(1L);
+        verify(unknownUsernames).invalidate("alice_new");
+        verify(searchCacheGenerations).invalidate("alice", "alice_new");
+        verify(userEventProducer).sendUserUpdated(1L, "username", "alice", "alice_new");
+        verify(friendshipCache).onProfileChanged(1L);
     }
 
     @Test
@@ -215,12 +193,8 @@ class UserServiceTest {
         newData.setEmail("new@example.com");
 
         when(userRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(jwtUtil.generateAccessToken(any())).thenReturn("access");
-        when(jwtUtil.generateRefreshToken(any())).thenReturn("refresh");
-        when(refreshTokenRepository.save(any())).thenAnswer(inv -> {
-            RefreshToken rt = inv.getArgument(0);
-            return rt;
-        });
+        when(jwtUtil.generateAccessToken(any(), any())).thenReturn("access");
+        when(jwtUtil.generateRefreshToken(any(), any())).thenReturn("refresh");
         when(verificationCodeRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
         userService.update(user, newData);
@@ -230,6 +204,9 @@ class UserServiceTest {
         verify(verificationCodeRepository).revokeAllVerificationCodes(1L);
         verify(verificationCodeRepository).save(any(VerificationCode.class));
         verify(emailEventProducer).sendEmailCode(eq(1L), eq("new@example.com"), anyString(), eq("update"));
+        verify(accessTokenDenylist, never()).revokeAllForUser(any());
+        verifyNoInteractions(searchCacheGenerations);
+        verifyNoInteractions(userEventProducer);
     }
 
     @Test
@@ -244,9 +221,8 @@ class UserServiceTest {
         newData.setEmail("first@example.com");
 
         when(userRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(jwtUtil.generateAccessToken(any())).thenReturn("access");
-        when(jwtUtil.generateRefreshToken(any())).thenReturn("refresh");
-        when(refreshTokenRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(jwtUtil.generateAccessToken(any(), any())).thenReturn("access");
+        when(jwtUtil.generateRefreshToken(any(), any())).thenReturn("refresh");
         when(verificationCodeRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
         userService.update(user, newData);
@@ -265,9 +241,8 @@ class UserServiceTest {
 
         when(passwordEncoder.encode("newPlainPass")).thenReturn("$2a$newEncoded");
         when(userRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(jwtUtil.generateAccessToken(any())).thenReturn("access");
-        when(jwtUtil.generateRefreshToken(any())).thenReturn("refresh");
-        when(refreshTokenRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(jwtUtil.generateAccessToken(any(), any())).thenReturn("access");
+        when(jwtUtil.generateRefreshToken(any(), any())).thenReturn("refresh");
 
         userService.update(user, newData);
 
@@ -276,22 +251,60 @@ class UserServiceTest {
     }
 
     @Test
-    void update_alreadyEncodedPassword_skipEncoding() {
+    void update_passwordWithBcryptPrefix_isStillEncoded() {
         User user = new User();
         user.setId(1L);
         user.setUsername("alice");
 
         User newData = new User();
-        newData.setPassword("$2a$alreadyEncoded");
+        newData.setPassword("$2a$notReallyAHash");
 
+        when(passwordEncoder.encode("$2a$notReallyAHash")).thenReturn("{bcrypt}encoded");
         when(userRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(jwtUtil.generateAccessToken(any())).thenReturn("access");
-        when(jwtUtil.generateRefreshToken(any())).thenReturn("refresh");
-        when(refreshTokenRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(jwtUtil.generateAccessToken(any(), any())).thenReturn("access");
+        when(jwtUtil.generateRefreshToken(any(), any())).thenReturn("refresh");
 
         userService.update(user, newData);
 
-        verify(passwordEncoder, never()).encode(any());
+        assertThat(user.getPassword()).isEqualTo("{bcrypt}encoded");
+        verify(passwordEncoder).encode("$2a$notReallyAHash");
+    }
+
+    @Test
+    void update_passwordWithBraces_isStillEncoded() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+
+        User newData = new User();
+        newData.setPassword("{secret}pw");
+
+        when(passwordEncoder.encode("{secret}pw")).thenReturn("{bcrypt}encoded");
+        when(userRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(jwtUtil.generateAccessToken(any(), any())).thenReturn("access");
+        when(jwtUtil.generateRefreshToken(any(), any())).thenReturn("refresh");
+
+        userService.update(user, newData);
+
+        assertThat(user.getPassword()).isEqualTo("{bcrypt}encoded");
+        verify(passwordEncoder).encode("{secret}pw");
+    }
+
+    // ======================== AVATAR ========================
+
+    @Test
+    void updateAvatarUrl_savesAndQueuesEventWithOldValue() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setAvatarURL("http://old/avatar.jpg");
+
+        userService.updateAvatarUrl(user, "http://new/avatar.jpg");
+
+        assertThat(user.getAvatarURL()).isEqualTo("http://new/avatar.jpg");
+        verify(userRepository).save(user);
+        verify(userEventProducer).sendUserUpdated(1L, "avatarURL", "http://old/avatar.jpg", "http://new/avatar.jpg");
+        verify(friendshipCache).onProfileChanged(1L);
     }
 
     // ======================== DELETE ========================
@@ -305,6 +318,9 @@ class UserServiceTest {
         userService.deleteUser(user);
 
         verify(userRepository).delete(user);
+        verify(refreshTokenStore).revokeAllByUser(1L);
+        verify(accessTokenDenylist).revokeAllForUser(1L);
+        verify(searchCacheGenerations).invalidate("alice");
     }
 
     // ======================== FIND BY USERNAME ========================